@@ -0,0 +1,66 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.statemachine.BookingStateMachine;
+import ru.practicum.shareit.booking.statemachine.BookingStateMachineConfig;
+import ru.practicum.shareit.booking.statemachine.BookingTransitionListener;
+
+import java.util.concurrent.TimeUnit;
+
+// Сравнение прежнего пути через StateMachineFactory и таблицы переходов BookingStateMachine
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingStateMachineBenchmark {
+    private AnnotationConfigApplicationContext context;
+    private StateMachineFactory<BookingStatusType, BookingEvent> stateMachineFactory;
+    private BookingStateMachine bookingStateMachine;
+    private long id;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BookingStateMachineConfig.class);
+        stateMachineFactory = context.getBean(StateMachineFactory.class);
+        bookingStateMachine = new BookingStateMachine(stateMachineFactory,
+                context.getBeanProvider(BookingTransitionListener.class));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookingStatusType springStateMachine() {
+        StateMachine<BookingStatusType, BookingEvent> sm = stateMachineFactory.getStateMachine(Long.toString(id++));
+        sm.start();
+        sm.sendEvent(BookingEvent.APPROVE);
+        BookingStatusType status = sm.getState().getId();
+        sm.stop();
+        return status;
+    }
+
+    @Benchmark
+    public BookingStatusType transitionTable() {
+        return bookingStateMachine.next(BookingStatusType.WAITING, BookingEvent.APPROVE);
+    }
+}
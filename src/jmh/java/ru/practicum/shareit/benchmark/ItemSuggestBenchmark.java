@@ -0,0 +1,81 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.service.ItemSuggestIndex;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Время подсказки и изменения индекса при items различных названиях. Занимаемая индексом память
+// печатается при подготовке: разница занятой кучи до и после загрузки, делённая на число вещей
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ItemSuggestBenchmark {
+    private static final String[] WORDS = {"Дрель", "Перфоратор", "Шуруповёрт", "Лобзик", "Болгарка",
+            "Палатка", "Велосипед", "Самокат", "Проектор", "Стремянка"};
+
+    @Param({"1000000"})
+    private int items;
+
+    private ItemSuggestIndex index;
+    private String[] prefixes;
+
+    @Setup
+    public void setUp() {
+        long before = usedHeap();
+        index = new ItemSuggestIndex(null, 0);
+        for (int i = 0; i < items; i++) {
+            index.add(name(i));
+        }
+        long after = usedHeap();
+        System.out.printf("%nИндекс: %d названий, %d МБ, %d байт на вещь%n",
+                index.size(), (after - before) >> 20, (after - before) / items);
+
+        prefixes = new String[]{"д", "дрель 1", "дрель 12345", "самокат 99", "я"};
+    }
+
+    @Benchmark
+    public List<String> suggestShortPrefix() {
+        return index.suggest("пе", 10);
+    }
+
+    @Benchmark
+    public List<String> suggestRandomPrefix() {
+        return index.suggest(prefixes[ThreadLocalRandom.current().nextInt(prefixes.length)], 10);
+    }
+
+    // Переименование вещи: то, что делает ItemService после коммита
+    @Benchmark
+    public void rename() {
+        int i = ThreadLocalRandom.current().nextInt(items);
+        index.remove(name(i));
+        index.add(name(i));
+    }
+
+    private static String name(int i) {
+        return WORDS[i % WORDS.length] + " " + i;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.model.CommentDto;
+import ru.practicum.shareit.comment.model.CommentMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private Booking booking;
+    private Item item;
+    private ItemSnapshot itemSnapshot;
+    private Comment comment;
+    private List<CommentDto> comments;
+
+    @Setup
+    public void setUp() {
+        User owner = User.builder().id(1L).name("Owner").email("owner@mail.ru").build();
+        User booker = User.builder().id(2L).name("Booker").email("booker@mail.ru").build();
+        item = Item.builder()
+                .id(1L)
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .isAvailable(true)
+                .owner(owner)
+                .build();
+        itemSnapshot = ItemSnapshot.of(item);
+        LocalDateTime now = LocalDateTime.now();
+        booking = Booking.builder()
+                .id(1L)
+                .start(now)
+                .end(now.plusDays(1))
+                .item(item)
+                .booker(booker)
+                .ownerId(owner.getId())
+                .status(BookingStatusType.APPROVED)
+                .build();
+        comment = Comment.builder()
+                .id(1L)
+                .text("Отлично")
+                .item(item)
+                .author(booker)
+                .created(now)
+                .build();
+        comments = List.of(CommentMapper.toCommentDto(comment));
+    }
+
+    @Benchmark
+    public BookingDto bookingToDto() {
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Benchmark
+    public ItemDto itemToDto() {
+        return ItemMapper.toItemDto(item);
+    }
+
+    @Benchmark
+    public ItemDto itemWithCommentsToDto() {
+        return ItemMapper.toItemDto(itemSnapshot, comments);
+    }
+
+    @Benchmark
+    public CommentDto commentToDto() {
+        return CommentMapper.toCommentDto(comment);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 10 000 бронирований в DTO: загрузка сущностей с join fetch против JPQL-проекции.
+// Выделение памяти на операцию видно с профайлером: -Djmh.args="ProjectionBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ProjectionBenchmark {
+    private static final int ROWS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = ServiceBenchmark.startContext("projection");
+        ServiceBenchmark.seed(context.getBean(JdbcTemplate.class), ROWS);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> entities() {
+        return readOnly.execute(status -> entityManager.createQuery("select booking from Booking booking " +
+                        "join fetch booking.item item join fetch item.owner join fetch booking.booker " +
+                        "order by booking.id", Booking.class)
+                .setMaxResults(ROWS)
+                .getResultStream()
+                .map(BookingMapper::toBookingDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<BookingDto> projection() {
+        return readOnly.execute(status -> entityManager.createQuery(BookingRepository.BOOKING_VIEW +
+                        "order by booking.id", BookingView.class)
+                .setMaxResults(ROWS)
+                .getResultStream()
+                .map(BookingMapper::toBookingDto)
+                .toList());
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.config.RateLimitInterceptor;
+import ru.practicum.shareit.config.RateLimitProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Накладные расходы лимитера на один запрос: поиск группы, ведро пользователя в Caffeine и CAS по GCRA.
+// Лимиты заведомо большие, чтобы измерялся путь пропуска запроса, а не построение исключения
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimiterBenchmark {
+    @Param({"1000", "100000"})
+    private int users;
+
+    private RateLimitInterceptor interceptor;
+    private MockHttpServletRequest[] requests;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(Integer.MAX_VALUE);
+        limit.setRefillPerSecond(1_000_000_000);
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setCapacity(Integer.MAX_VALUE);
+        search.setRefillPerSecond(1_000_000_000);
+        search.setPaths(List.of("/items/search"));
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxUsers(users * 2L);
+        properties.setIdleTimeout(Duration.ofMinutes(10));
+        properties.setDefaultLimit(limit);
+        properties.setRoutes(Map.of("search", search));
+        interceptor = new RateLimitInterceptor(properties);
+
+        requests = new MockHttpServletRequest[users];
+        for (int i = 0; i < users; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/search");
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/search");
+            request.addHeader("X-Sharer-User-Id", String.valueOf(i + 1));
+            requests[i] = request;
+        }
+    }
+
+    @Benchmark
+    public boolean preHandle() {
+        return interceptor.preHandle(requests[ThreadLocalRandom.current().nextInt(users)], response, null);
+    }
+
+    // Только чтение заголовка и атрибута из случайного запроса: стоимость самого стенда без лимитера
+    @Benchmark
+    public void baseline(Blackhole blackhole) {
+        MockHttpServletRequest request = requests[ThreadLocalRandom.current().nextInt(users)];
+        blackhole.consume(request.getHeader("X-Sharer-User-Id"));
+        blackhole.consume(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean preHandleConcurrent() {
+        return interceptor.preHandle(requests[ThreadLocalRandom.current().nextInt(users)], response, null);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сервисный слой поверх H2 с синтетическими данными: 100 владельцев, 10 000 вещей, rows бронирований
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class ServiceBenchmark {
+    static final int OWNERS = 100;
+    static final int BOOKERS = 900;
+    static final int ITEMS = 10_000;
+    static final int PAGE_SIZE = 20;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = startContext("bench" + rows);
+        seed(context.getBean(JdbcTemplate.class), rows);
+        bookingService = context.getBean(BookingService.class);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerListingAll() {
+        return bookingService.readByOwnerAndState(BookingState.ALL, 1L, 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public List<BookingDto> ownerListingWaiting() {
+        return bookingService.readByOwnerAndState(BookingState.WAITING, 1L, 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public List<BookingDto> bookerListingPast() {
+        return bookingService.readByBookerAndState(BookingState.PAST, OWNERS + 1L, 0, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public List<ItemDto> searchItems() {
+        return itemService.searchItems("item 42", 0, PAGE_SIZE);
+    }
+
+    static ConfigurableApplicationContext startContext(String database) {
+        return new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:mem:" + database,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN");
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int bookings) {
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= OWNERS + BOOKERS; id++) {
+            users.add(new Object[]{id, "User" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "Item " + id, "Description " + id, true, id % OWNERS + 1});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, owner_id) VALUES (?, ?, ?, ?, ?)", items);
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED"};
+        LocalDateTime base = LocalDateTime.now().minusHours(bookings / 2);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long id = 1; id <= bookings; id++) {
+            LocalDateTime start = base.plusHours(id);
+            long itemId = id % ITEMS + 1;
+            batch.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                    itemId, OWNERS + id % BOOKERS + 1, itemId % OWNERS + 1, statuses[(int) (id % statuses.length)]});
+            if (batch.size() == BATCH_SIZE) {
+                insertBookings(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        insertBookings(jdbcTemplate, batch);
+    }
+
+    private static void insertBookings(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", batch);
+    }
+}
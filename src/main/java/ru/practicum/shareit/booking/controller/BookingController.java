@@ -12,8 +12,11 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.model.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.BookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingSummaryDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
 import java.util.List;
@@ -31,6 +34,12 @@ public class BookingController {
         return bookingService.createBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> createBatch(@RequestBody List<BookingDto> bookingDtos,
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.createBookings(bookingDtos, userId);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateStatus(@PathVariable Long bookingId,
                                    @RequestHeader("X-Sharer-User-Id") Long userId,
@@ -40,19 +49,34 @@ public class BookingController {
 
     @GetMapping("/{bookingId}")
     public BookingDto findById(@PathVariable Long bookingId,
-                               @RequestHeader("X-Sharer-User-Id") Long userId) {
+                               @RequestHeader("X-Sharer-User-Id") Long userId,
+                               WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingETag(bookingId, userId))) {
+            return null;
+        }
         return bookingService.getBookingDto(bookingId, userId);
     }
 
     @GetMapping
     public List<BookingDto> findAllByBookerAndState(@RequestParam(required = false, defaultValue = "ALL") BookingState state,
-                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.readByBookerAndState(state, userId);
+                                                    @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                    @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestParam(required = false) Long after) {
+        return bookingService.readByBookerAndState(state, userId, from, size, after);
+    }
+
+    @GetMapping("/owner/summary")
+    public BookingSummaryDto getOwnerSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getOwnerSummary(userId);
     }
 
     @GetMapping("/owner")
     public List<BookingDto> findAllByOwnerAndState(@RequestParam(required = false, defaultValue = "ALL") BookingState state,
-                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return bookingService.readByOwnerAndState(state, userId);
+                                                   @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam(required = false, defaultValue = "0") Integer from,
+                                                   @RequestParam(required = false) Integer size,
+                                                   @RequestParam(required = false) Long after) {
+        return bookingService.readByOwnerAndState(state, userId, from, size, after);
     }
 }
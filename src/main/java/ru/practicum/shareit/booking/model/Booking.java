@@ -8,7 +8,12 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,9 +30,17 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.full",
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item.owner"),
+                @NamedAttributeNode("booker")
+        },
+        subgraphs = @NamedSubgraph(name = "item.owner", attributeNodes = @NamedAttributeNode("owner")))
 public class Booking {
+    // Последовательность с пулом вместо IDENTITY, иначе Hibernate не может группировать вставки в batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
@@ -46,8 +59,18 @@ public class Booking {
     @ManyToOne
     private User booker;
 
+    // Копия item.owner.id для выборок владельца без соединения с items
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(name = "created")
+    private LocalDateTime created;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false)
     private BookingStatusType status;
+
+    @Version
+    private Long version;
 }
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.booking.model;
 
+import jakarta.validation.constraints.NotNull;
 import lombok.Builder;
 import lombok.Data;
+import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.user.model.UserDto;
 
@@ -14,7 +16,9 @@ public class BookingDto {
     private ItemDto item;
     private Long itemId;
     private UserDto booker;
+    @NotNull(message = ExceptionMessages.BOOKING_DATES_REQUIRED)
     private LocalDateTime start;
+    @NotNull(message = ExceptionMessages.BOOKING_DATES_REQUIRED)
     private LocalDateTime end;
     private BookingStatusType status;
 }
@@ -3,5 +3,6 @@ package ru.practicum.shareit.booking.model;
 public enum BookingEvent {
     APPROVE,
     REJECT,
-    CANCEL
+    CANCEL,
+    EXPIRE
 }
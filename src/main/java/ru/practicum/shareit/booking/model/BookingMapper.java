@@ -1,17 +1,23 @@
 package ru.practicum.shareit.booking.model;
 
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.item.model.ItemMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.model.UserMapper;
 
+import java.time.LocalDateTime;
+
 public class BookingMapper {
     public static Booking toBooking(BookingDto bookingDto, Item item, User user) {
         return Booking.builder()
                 .end(bookingDto.getEnd())
                 .start(bookingDto.getStart())
                 .status(BookingStatusType.WAITING)
+                .created(LocalDateTime.now())
                 .item(item)
+                .ownerId(item.getOwner().getId())
                 .booker(user)
                 .build();
     }
@@ -26,4 +32,24 @@ public class BookingMapper {
                 .item(ItemMapper.toItemDto(booking.getItem()))
                 .build();
     }
+
+    public static BookingDto toBookingDto(BookingView booking) {
+        return BookingDto.builder()
+                .id(booking.id())
+                .start(booking.start())
+                .end(booking.end())
+                .status(booking.status())
+                .booker(UserDto.builder()
+                        .id(booking.bookerId())
+                        .name(booking.bookerName())
+                        .email(booking.bookerEmail())
+                        .build())
+                .item(ItemDto.builder()
+                        .id(booking.itemId())
+                        .name(booking.itemName())
+                        .description(booking.itemDescription())
+                        .isAvailable(booking.itemAvailable())
+                        .build())
+                .build();
+    }
 }
@@ -4,5 +4,6 @@ public enum BookingStatusType {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELLED
+    CANCELLED,
+    EXPIRED
 }
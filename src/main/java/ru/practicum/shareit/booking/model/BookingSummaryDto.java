@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+// Сводка владельца: число броней в каждом состоянии из /bookings/owner и загрузка по вещам
+@Data
+@Builder
+public class BookingSummaryDto {
+    private Map<BookingState, Long> states;
+    private List<ItemUtilizationDto> items;
+}
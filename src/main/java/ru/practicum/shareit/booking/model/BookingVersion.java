@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model;
+
+// Версии всего, что попадает в BookingDto, и участники брони для проверки доступа
+public record BookingVersion(Long bookerId, Long ownerId, Long bookingVersion, Long itemVersion, Long bookerVersion) {
+    public String toETag() {
+        return bookingVersion + "-" + itemVersion + "-" + bookerVersion;
+    }
+}
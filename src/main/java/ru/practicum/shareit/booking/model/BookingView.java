@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+// Только поля BookingDto: списки собираются без загрузки и отслеживания сущностей Booking, Item и User
+public record BookingView(Long id, LocalDateTime start, LocalDateTime end, BookingStatusType status,
+                          Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                          Long bookerId, String bookerName, String bookerEmail) {
+}
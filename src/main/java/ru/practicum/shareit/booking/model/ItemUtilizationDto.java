@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+
+@Data
+@Builder
+public class ItemUtilizationDto {
+    private Long itemId;
+    private String name;
+    private Long bookings;
+    private Long waiting;
+    private Long approved;
+    private Long rejected;
+    // Суммарная длительность подтверждённых бронирований
+    private Duration bookedTime;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BookingEventMessage {
+    private Long id;
+    private Long bookingId;
+    private Long itemId;
+    private Long ownerId;
+    private Long bookerId;
+    private BookingEvent event;
+    private BookingStatusType sourceStatus;
+    private BookingStatusType targetStatus;
+    private LocalDateTime created;
+
+    public static BookingEventMessage of(BookingOutboxEvent event) {
+        return BookingEventMessage.builder()
+                .id(event.getId())
+                .bookingId(event.getBookingId())
+                .itemId(event.getItemId())
+                .ownerId(event.getOwnerId())
+                .bookerId(event.getBookerId())
+                .event(event.getEvent())
+                .sourceStatus(event.getSourceStatus())
+                .targetStatus(event.getTargetStatus())
+                .created(event.getCreated())
+                .build();
+    }
+}
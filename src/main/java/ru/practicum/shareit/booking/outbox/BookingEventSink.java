@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.outbox;
+
+// Получатель уведомлений о смене статуса брони. Исключение означает неудачную доставку,
+// событие останется в outbox и будет отправлено повторно; id события позволяет получателю отсеять дубли
+public interface BookingEventSink {
+    void send(BookingEventMessage message);
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Забирает outbox пачками под SELECT ... FOR UPDATE SKIP LOCKED и сдвигает им next_attempt на время
+// аренды, поэтому несколько инстансов не отправляют одно событие одновременно. Диспетчер сам забирает события с той скоростью, с которой
+// их принимает получатель: после первой ошибки опрос прекращается до следующего запуска
+@Slf4j
+@Component
+public class BookingOutboxDispatcher {
+    private static final int ERROR_MAX_LENGTH = 255;
+
+    private final BookingOutboxRepository bookingOutboxRepository;
+    private final BookingEventSink bookingEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration claimTimeout;
+    private final int maxAttempts;
+    private final Duration retryDelay;
+    private final Duration maxRetryDelay;
+
+    private final Counter delivered;
+    private final Counter failedAttempts;
+    private final Counter deadLettered;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public BookingOutboxDispatcher(BookingOutboxRepository bookingOutboxRepository,
+                                   BookingEventSink bookingEventSink,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${shareit.outbox.batch-size:100}") int batchSize,
+                                   @Value("${shareit.outbox.max-batches-per-run:10}") int maxBatchesPerRun,
+                                   @Value("${shareit.outbox.claim-timeout:15m}") Duration claimTimeout,
+                                   @Value("${shareit.outbox.max-attempts:10}") int maxAttempts,
+                                   @Value("${shareit.outbox.retry-delay:1s}") Duration retryDelay,
+                                   @Value("${shareit.outbox.max-retry-delay:10m}") Duration maxRetryDelay) {
+        this.bookingOutboxRepository = bookingOutboxRepository;
+        this.bookingEventSink = bookingEventSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.claimTimeout = claimTimeout;
+        this.maxAttempts = maxAttempts;
+        this.retryDelay = retryDelay;
+        this.maxRetryDelay = maxRetryDelay;
+
+        this.delivered = meterRegistry.counter("shareit.outbox.delivered");
+        this.failedAttempts = meterRegistry.counter("shareit.outbox.delivery.failures");
+        this.deadLettered = meterRegistry.counter("shareit.outbox.dead");
+        Gauge.builder("shareit.outbox.pending", pending, AtomicLong::get)
+                .description("События, ожидающие доставки")
+                .register(meterRegistry);
+        TimeGauge.builder("shareit.outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Возраст самого старого недоставленного события")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.outbox.poll-interval:PT1S}")
+    public void dispatch() {
+        drain();
+    }
+
+    // Возвращает число доставленных событий
+    public int drain() {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            BatchResult result = dispatchBatch();
+            total += result.delivered();
+            if (result.size() < batchSize || result.failed()) {
+                break;
+            }
+        }
+        updateLag();
+        return total;
+    }
+
+    // Пачка забирается короткой транзакцией: next_attempt сдвигается на claimTimeout и служит арендой,
+    // поэтому строки не держатся под блокировкой, пока идёт отправка. Отправка идёт вне транзакции,
+    // результат фиксируется второй короткой транзакцией
+    private BatchResult dispatchBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingOutboxEvent> batch = transactionTemplate.execute(status -> claimBatch(now));
+        List<Long> sent = new ArrayList<>();
+        for (BookingOutboxEvent event : batch) {
+            try {
+                bookingEventSink.send(BookingEventMessage.of(event));
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> settle(batch, sent, event, e, now));
+                return new BatchResult(batch.size(), sent.size(), true);
+            }
+            sent.add(event.getId());
+        }
+        transactionTemplate.executeWithoutResult(status -> settle(batch, sent, null, null, now));
+        return new BatchResult(batch.size(), sent.size(), false);
+    }
+
+    private List<BookingOutboxEvent> claimBatch(LocalDateTime now) {
+        List<BookingOutboxEvent> batch = bookingOutboxRepository.findBatchForDispatch(BookingOutboxStatus.PENDING, now,
+                PageRequest.of(0, batchSize));
+        if (!batch.isEmpty()) {
+            bookingOutboxRepository.updateNextAttempt(batch.stream().map(BookingOutboxEvent::getId).toList(),
+                    now.plus(claimTimeout));
+        }
+        return batch;
+    }
+
+    private void settle(List<BookingOutboxEvent> batch, List<Long> sent, BookingOutboxEvent failed,
+                        RuntimeException error, LocalDateTime now) {
+        if (!sent.isEmpty()) {
+            bookingOutboxRepository.deleteAllByIdInBatch(sent);
+            delivered.increment(sent.size());
+        }
+        if (failed == null) {
+            return;
+        }
+        bookingOutboxRepository.findById(failed.getId()).ifPresent(event -> scheduleRetry(event, error, now));
+        // Неотправленный остаток пачки возвращается в очередь сразу, не дожидаясь конца аренды
+        List<Long> rest = batch.subList(sent.size() + 1, batch.size()).stream().map(BookingOutboxEvent::getId).toList();
+        if (!rest.isEmpty()) {
+            bookingOutboxRepository.updateNextAttempt(rest, now);
+        }
+    }
+
+    private void scheduleRetry(BookingOutboxEvent event, RuntimeException e, LocalDateTime now) {
+        failedAttempts.increment();
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(e.getMessage() == null ? e.getClass().getName()
+                : e.getMessage().substring(0, Math.min(e.getMessage().length(), ERROR_MAX_LENGTH)));
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(BookingOutboxStatus.FAILED);
+            deadLettered.increment();
+            log.warn("Событие {} по бронированию {} не доставлено за {} попыток: {}", event.getId(),
+                    event.getBookingId(), event.getAttempts(), event.getLastError());
+            return;
+        }
+        // Экспоненциальная задержка: retryDelay, 2 * retryDelay, 4 * retryDelay ... но не больше maxRetryDelay
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(event.getAttempts() - 1, 20));
+        event.setNextAttempt(now.plus(delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay));
+    }
+
+    private void updateLag() {
+        pending.set(bookingOutboxRepository.countByStatus(BookingOutboxStatus.PENDING));
+        lagMillis.set(bookingOutboxRepository.findOldestCreated(BookingOutboxStatus.PENDING)
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+    }
+
+    private record BatchResult(int size, int delivered, boolean failed) {
+    }
+}
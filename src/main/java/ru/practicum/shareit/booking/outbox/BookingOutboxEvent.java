@@ -0,0 +1,71 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+
+import java.time.LocalDateTime;
+
+// Запись outbox пишется в одной транзакции со сменой статуса и удаляется после доставки
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_outbox")
+public class BookingOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "booker_id", nullable = false)
+    private Long bookerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "booking_event", nullable = false)
+    private BookingEvent event;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "source_status", nullable = false)
+    private BookingStatusType sourceStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_status", nullable = false)
+    private BookingStatusType targetStatus;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private BookingOutboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt", nullable = false)
+    private LocalDateTime nextAttempt;
+
+    @Column(name = "last_error")
+    private String lastError;
+}
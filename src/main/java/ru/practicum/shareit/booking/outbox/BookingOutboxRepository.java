@@ -0,0 +1,44 @@
+package ru.practicum.shareit.booking.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingOutboxRepository extends JpaRepository<BookingOutboxEvent, Long> {
+    // lock.timeout = -2 - это SKIP LOCKED: строки, взятые другим диспетчером, пропускаются без ожидания
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select event from BookingOutboxEvent event " +
+            "where event.status = ?1 and event.nextAttempt <= ?2 order by event.id")
+    List<BookingOutboxEvent> findBatchForDispatch(BookingOutboxStatus status, LocalDateTime now, Pageable pageable);
+
+    @Modifying
+    @Query("update BookingOutboxEvent event set event.nextAttempt = ?2 where event.id in ?1")
+    int updateNextAttempt(Collection<Long> ids, LocalDateTime nextAttempt);
+
+    // События для брони, переведённых массовым UPDATE в обход BookingOutboxWriter
+    @Modifying
+    @Query(value = "INSERT INTO booking_outbox (booking_id, item_id, owner_id, booker_id, booking_event, source_status, " +
+            "target_status, created, status, attempts, next_attempt) " +
+            "SELECT b.id, b.item_id, i.owner_id, b.booker_id, ?2, ?3, ?4, ?5, 'PENDING', 0, ?5 " +
+            "FROM bookings b JOIN items i ON i.id = b.item_id WHERE b.id IN ?1 AND b.status = ?4", nativeQuery = true)
+    int insertForBookings(Collection<Long> bookingIds, String event, String sourceStatus, String targetStatus,
+                          LocalDateTime now);
+
+    long countByStatus(BookingOutboxStatus status);
+
+    @Query("select min(event.created) from BookingOutboxEvent event where event.status = ?1")
+    Optional<LocalDateTime> findOldestCreated(BookingOutboxStatus status);
+}
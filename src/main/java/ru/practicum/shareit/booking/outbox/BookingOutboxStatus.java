@@ -0,0 +1,6 @@
+package ru.practicum.shareit.booking.outbox;
+
+public enum BookingOutboxStatus {
+    PENDING,
+    FAILED
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.statemachine.BookingTransitionListener;
+
+import java.time.LocalDateTime;
+
+// Пишет событие в outbox в транзакции смены статуса: откат смены статуса откатывает и событие
+@Component
+@RequiredArgsConstructor
+public class BookingOutboxWriter implements BookingTransitionListener {
+    private final BookingOutboxRepository bookingOutboxRepository;
+
+    @Override
+    public void onTransition(Booking booking, BookingStatusType source, BookingEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        bookingOutboxRepository.save(BookingOutboxEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .ownerId(booking.getItem().getOwner().getId())
+                .bookerId(booking.getBooker().getId())
+                .event(event)
+                .sourceStatus(source)
+                .targetStatus(booking.getStatus())
+                .created(now)
+                .status(BookingOutboxStatus.PENDING)
+                .nextAttempt(now)
+                .build());
+    }
+}
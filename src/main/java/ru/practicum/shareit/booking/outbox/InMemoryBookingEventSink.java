@@ -0,0 +1,49 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Копит доставленные события в памяти, для тестов
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "memory")
+public class InMemoryBookingEventSink implements BookingEventSink {
+    private final List<BookingEventMessage> messages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    // Отправки, сделанные внутри транзакции: диспетчер не должен держать соединение на время доставки
+    private final AtomicInteger sentInTransaction = new AtomicInteger();
+
+    @Override
+    public void send(BookingEventMessage message) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            sentInTransaction.incrementAndGet();
+        }
+        if (failures.getAndUpdate(left -> Math.max(left - 1, 0)) > 0) {
+            throw new IllegalStateException("Доставка события " + message.getId() + " не удалась");
+        }
+        messages.add(message);
+    }
+
+    public List<BookingEventMessage> getMessages() {
+        return List.copyOf(messages);
+    }
+
+    public int getSentInTransaction() {
+        return sentInTransaction.get();
+    }
+
+    // Следующие times отправок завершатся ошибкой
+    public void failNext(int times) {
+        failures.set(times);
+    }
+
+    public void clear() {
+        messages.clear();
+        failures.set(0);
+        sentInTransaction.set(0);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogBookingEventSink implements BookingEventSink {
+    @Override
+    public void send(BookingEventMessage message) {
+        log.info("Бронирование {}: {} -> {} ({})", message.getBookingId(), message.getSourceStatus(),
+                message.getTargetStatus(), message.getEvent());
+    }
+}
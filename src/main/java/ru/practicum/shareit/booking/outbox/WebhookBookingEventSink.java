@@ -0,0 +1,40 @@
+package ru.practicum.shareit.booking.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+// POST события в JSON на shareit.outbox.webhook.url, любой ответ кроме 2xx - повтор позже
+@Component
+@ConditionalOnProperty(name = "shareit.outbox.sink", havingValue = "webhook")
+public class WebhookBookingEventSink implements BookingEventSink {
+    private final RestClient restClient;
+
+    public WebhookBookingEventSink(RestClient.Builder builder,
+                                   @Value("${shareit.outbox.webhook.url}") String url,
+                                   @Value("${shareit.outbox.webhook.timeout:5s}") Duration timeout) {
+        // Таймауты ограничивают, сколько диспетчер держит блокировки строк outbox на медленном получателе
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = builder
+                .baseUrl(url)
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    @Override
+    public void send(BookingEventMessage message) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotency-Key", String.valueOf(message.getId()))
+                .body(message)
+                .retrieve()
+                .toBodilessEntity();
+    }
+}
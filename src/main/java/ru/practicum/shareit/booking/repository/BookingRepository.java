@@ -1,37 +1,166 @@
 package ru.practicum.shareit.booking.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingInterval;
 import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.model.BookingView;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findAllByBookerIdOrderByStartAsc(Long userId);
+    String BOOKING_GRAPH = "Booking.full";
+    // Списки выбирают только колонки BookingDto
+    String BOOKING_VIEW = "select new ru.practicum.shareit.booking.model.BookingView(" +
+            "booking.id, booking.start, booking.end, booking.status, " +
+            "item.id, item.name, item.description, item.isAvailable, " +
+            "booker.id, booker.name, booker.email) " +
+            "from Booking booking join booking.item item join booking.booker booker ";
+    // Курсор (start, id): следующая страница начинается строго после последней показанной брони, без OFFSET
+    String AFTER_ASC = "and (booking.start > :start or (booking.start = :start and booking.id > :id)) " +
+            "order by booking.start asc, booking.id asc";
+    String AFTER_DESC = "and (booking.start < :start or (booking.start = :start and booking.id < :id)) " +
+            "order by booking.start desc, booking.id desc";
 
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatusType bookingStatus);
+    @Override
+    @EntityGraph(BOOKING_GRAPH)
+    Optional<Booking> findById(Long id);
 
-    List<Booking> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query("select new ru.practicum.shareit.booking.model.BookingVersion(" +
+            "booker.id, item.owner.id, booking.version, item.version, booker.version) " +
+            "from Booking booking join booking.item item join booking.booker booker where booking.id = ?1")
+    Optional<BookingVersion> findVersionById(Long id);
 
-    List<Booking> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1);
+    @Query(BOOKING_VIEW + "where booker.id = ?1 order by booking.start asc, booking.id asc")
+    List<BookingView> findAllByBookerIdOrderByStartAsc(Long userId, Pageable pageable);
 
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query(BOOKING_VIEW + "where booker.id = ?1 and booking.status = ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByBookerIdAndStatusOrderByStartDesc(Long userId, BookingStatusType bookingStatus, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdOrderByStartAsc(Long userId);
+    @Query(BOOKING_VIEW + "where booker.id = ?1 and booking.end < ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByBookerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndStatusOrderByStartDesc(Long userId, BookingStatusType bookingStatus);
+    @Query(BOOKING_VIEW + "where booker.id = ?1 and booking.start < ?2 and booking.end > ?3 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query(BOOKING_VIEW + "where booker.id = ?1 and booking.start > ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByBookerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1);
+    @Query(BOOKING_VIEW + "where booking.ownerId = ?1 order by booking.start asc, booking.id asc")
+    List<BookingView> findAllByOwnerIdOrderByStartAsc(Long userId, Pageable pageable);
 
-    List<Booking> findAllByItemOwnerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now);
+    @Query(BOOKING_VIEW + "where booking.ownerId = ?1 and booking.status = ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByOwnerIdAndStatusOrderByStartDesc(Long userId, BookingStatusType bookingStatus, Pageable pageable);
 
-    Optional<Booking> findByItemIdAndEndIsAfterAndStartIsBefore(Long id, LocalDateTime end, LocalDateTime start);
+    @Query(BOOKING_VIEW + "where booking.ownerId = ?1 and booking.end < ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByOwnerIdAndEndBeforeOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
 
-    Optional<Booking> findByItemIdAndBookerIdAndEndBefore(Long itemId, Long userId, LocalDateTime now);
-}
\ No newline at end of file
+    @Query(BOOKING_VIEW + "where booking.ownerId = ?1 and booking.start < ?2 and booking.end > ?3 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(Long userId, LocalDateTime now, LocalDateTime now1, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = ?1 and booking.start > ?2 order by booking.start desc, booking.id desc")
+    List<BookingView> findAllByOwnerIdAndStartAfterOrderByStartDesc(Long userId, LocalDateTime now, Pageable pageable);
+
+    // Курсор принимается только по своей брони, иначе по нему можно узнать чужие даты
+    @Query("select booking.start from Booking booking where booking.id = ?1 and booking.booker.id = ?2")
+    Optional<LocalDateTime> findStartByIdAndBookerId(Long id, Long bookerId);
+
+    @Query("select booking.start from Booking booking where booking.id = ?1 and booking.ownerId = ?2")
+    Optional<LocalDateTime> findStartByIdAndOwnerId(Long id, Long ownerId);
+
+    @Query(BOOKING_VIEW + "where booker.id = :userId " + AFTER_ASC)
+    List<BookingView> findAllByBookerIdAfter(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booker.id = :userId and booking.status = :status " + AFTER_DESC)
+    List<BookingView> findAllByBookerIdAndStatusAfter(Long userId, BookingStatusType status,
+                                                      LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booker.id = :userId and booking.end < :now " + AFTER_DESC)
+    List<BookingView> findAllByBookerIdAndEndBeforeAfter(Long userId, LocalDateTime now,
+                                                         LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booker.id = :userId and booking.start < :now and booking.end > :now " + AFTER_DESC)
+    List<BookingView> findAllByBookerIdAndCurrentAfter(Long userId, LocalDateTime now,
+                                                       LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booker.id = :userId and booking.start > :now " + AFTER_DESC)
+    List<BookingView> findAllByBookerIdAndStartAfterAfter(Long userId, LocalDateTime now,
+                                                          LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = :userId " + AFTER_ASC)
+    List<BookingView> findAllByOwnerIdAfter(Long userId, LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = :userId and booking.status = :status " + AFTER_DESC)
+    List<BookingView> findAllByOwnerIdAndStatusAfter(Long userId, BookingStatusType status,
+                                                     LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = :userId and booking.end < :now " + AFTER_DESC)
+    List<BookingView> findAllByOwnerIdAndEndBeforeAfter(Long userId, LocalDateTime now,
+                                                        LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = :userId and booking.start < :now and booking.end > :now " + AFTER_DESC)
+    List<BookingView> findAllByOwnerIdAndCurrentAfter(Long userId, LocalDateTime now,
+                                                      LocalDateTime start, Long id, Pageable pageable);
+
+    @Query(BOOKING_VIEW + "where booking.ownerId = :userId and booking.start > :now " + AFTER_DESC)
+    List<BookingView> findAllByOwnerIdAndStartAfterAfter(Long userId, LocalDateTime now,
+                                                         LocalDateTime start, Long id, Pageable pageable);
+
+    boolean existsByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(Long itemId, Collection<BookingStatusType> statuses,
+                                                                   LocalDateTime start, LocalDateTime end);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(Long itemId, Collection<BookingStatusType> statuses,
+                                                                          LocalDateTime start, LocalDateTime end);
+
+    boolean existsByItemIdAndBookerIdAndEndBefore(Long itemId, Long userId, LocalDateTime now);
+
+    @Query(BOOKING_VIEW + "where item.id in ?1 and booking.status = ?2 and booking.start = " +
+            "(select max(last.start) from Booking last " +
+            "where last.item = booking.item and last.status = ?2 and last.start <= ?3)")
+    List<BookingView> findLastBookingsByItemIds(Collection<Long> itemIds, BookingStatusType status, LocalDateTime now);
+
+    @Query(BOOKING_VIEW + "where item.id in ?1 and booking.status = ?2 and booking.start = " +
+            "(select min(next.start) from Booking next " +
+            "where next.item = booking.item and next.status = ?2 and next.start > ?3)")
+    List<BookingView> findNextBookingsByItemIds(Collection<Long> itemIds, BookingStatusType status, LocalDateTime now);
+
+    // Для сводки владельца: обе выборки идут по индексам владельца и читают только будущие и текущие брони
+    long countByOwnerIdAndEndGreaterThanEqual(Long ownerId, LocalDateTime now);
+
+    long countByOwnerIdAndStartAfter(Long ownerId, LocalDateTime now);
+
+    // Ещё не закончившиеся брони: диапазон по индексу (item_id, end_date) для каждой вещи
+    @Query("select new ru.practicum.shareit.booking.model.BookingInterval(booking.item.id, booking.start, booking.end) " +
+            "from Booking booking where booking.item.id in ?1 and booking.status in ?2 and booking.end > ?3 " +
+            "order by booking.item.id, booking.start")
+    List<BookingInterval> findBusyIntervals(Collection<? extends Long> itemIds, Collection<BookingStatusType> statuses,
+                                            LocalDateTime after);
+
+    @Query(value = "SELECT id FROM bookings WHERE status = 'WAITING' AND (start_date <= ?1 OR created <= ?2) " +
+            "ORDER BY id LIMIT ?3", nativeQuery = true)
+    List<Long> findStaleWaitingIds(LocalDateTime startedBefore, LocalDateTime createdBefore, int limit);
+
+    // Условие на статус повторяется: бронь могли подтвердить между выборкой id и обновлением
+    @Modifying
+    @Query(value = "UPDATE bookings SET status = ?2, version = version + 1 WHERE id IN ?1 AND status = 'WAITING'",
+            nativeQuery = true)
+    int expireWaiting(Collection<Long> ids, String status);
+
+    @Query(value = "SELECT id FROM bookings WHERE owner_id IS NULL AND id > ?1 ORDER BY id LIMIT ?2", nativeQuery = true)
+    List<Long> findIdsWithoutOwner(Long afterId, int limit);
+
+    @Modifying
+    @Query(value = "UPDATE bookings SET owner_id = (SELECT i.owner_id FROM items i WHERE i.id = bookings.item_id) " +
+            "WHERE id IN ?1", nativeQuery = true)
+    int fillOwnerIds(Collection<Long> ids);
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.util.DbLease;
+
+import java.time.Duration;
+import java.util.List;
+
+// Периодически сверяет счётчики бронирований в items с таблицей bookings. Первый запуск сразу после старта
+// заполняет счётчики в базах, где колонки только что добавлены. Каждая порция вещей - своя короткая транзакция
+@Slf4j
+@Component
+public class BookingCounterReconciler {
+    static final String LEASE_NAME = "booking-counters";
+
+    private final BookingCounters bookingCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final DbLease dbLease;
+    private final Duration leaseDuration;
+    private final int chunkSize;
+
+    public BookingCounterReconciler(BookingCounters bookingCounters,
+                                    TransactionTemplate transactionTemplate,
+                                    DbLease dbLease,
+                                    @Value("${shareit.booking.counters.lease:30m}") Duration leaseDuration,
+                                    @Value("${shareit.booking.counters.chunk-size:500}") int chunkSize) {
+        this.bookingCounters = bookingCounters;
+        this.transactionTemplate = transactionTemplate;
+        this.dbLease = dbLease;
+        this.leaseDuration = leaseDuration;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.counters.reconcile-interval:PT1H}")
+    public void reconcile() {
+        run();
+    }
+
+    // Возвращает число пересчитанных вещей, 0 - если аренду держит другой узел
+    public int run() {
+        if (!dbLease.tryAcquire(LEASE_NAME, leaseDuration)) {
+            return 0;
+        }
+        try {
+            int recounted = 0;
+            long lastId = 0;
+            List<Long> ids;
+            while (!(ids = bookingCounters.findItemIdsAfter(lastId, chunkSize)).isEmpty()) {
+                long afterId = lastId;
+                long chunkLastId = ids.getLast();
+                recounted += transactionTemplate.execute(status -> bookingCounters.recount(afterId, chunkLastId));
+                lastId = chunkLastId;
+            }
+            log.debug("Счётчики бронирований пересчитаны для {} вещей", recounted);
+            return recounted;
+        } finally {
+            dbLease.release(LEASE_NAME);
+        }
+    }
+}
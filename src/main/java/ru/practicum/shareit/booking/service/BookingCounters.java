@@ -0,0 +1,135 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.model.ItemUtilizationDto;
+import ru.practicum.shareit.booking.statemachine.BookingTransitionListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Счётчики бронирований по статусам хранятся в строке вещи и меняются в той же транзакции,
+// что и бронь: создание под блокировкой вещи, смена статуса - через BookingStateMachine.
+// Расхождения, если они появятся, исправляет BookingCounterReconciler
+@Component
+@RequiredArgsConstructor
+public class BookingCounters implements BookingTransitionListener {
+    private static final Map<BookingStatusType, String> COLUMNS = new EnumMap<>(Map.of(
+            BookingStatusType.WAITING, "bookings_waiting",
+            BookingStatusType.APPROVED, "bookings_approved",
+            BookingStatusType.REJECTED, "bookings_rejected",
+            BookingStatusType.CANCELLED, "bookings_cancelled",
+            BookingStatusType.EXPIRED, "bookings_expired"));
+
+    private static final String BOOKED_SECONDS = "CAST(SUM(EXTRACT(EPOCH FROM b.end_date) - EXTRACT(EPOCH FROM b.start_date)) AS BIGINT)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    // Новые брони всегда в WAITING
+    public void created(Long itemId, int amount) {
+        jdbcTemplate.update("UPDATE items SET bookings_waiting = bookings_waiting + :amount WHERE id = :itemId",
+                new MapSqlParameterSource("itemId", itemId).addValue("amount", amount));
+    }
+
+    @Override
+    public void onTransition(Booking booking, BookingStatusType source, BookingEvent event) {
+        BookingStatusType target = booking.getStatus();
+        long seconds = Duration.between(booking.getStart(), booking.getEnd()).toSeconds();
+        long bookedSeconds = (target == BookingStatusType.APPROVED ? seconds : 0)
+                - (source == BookingStatusType.APPROVED ? seconds : 0);
+        jdbcTemplate.update("UPDATE items SET " +
+                        COLUMNS.get(source) + " = " + COLUMNS.get(source) + " - 1, " +
+                        COLUMNS.get(target) + " = " + COLUMNS.get(target) + " + 1, " +
+                        "booked_seconds = booked_seconds + :bookedSeconds WHERE id = :itemId",
+                new MapSqlParameterSource("itemId", booking.getItem().getId()).addValue("bookedSeconds", bookedSeconds));
+    }
+
+    // Блокирует строки вещей этих броней в порядке id и возвращает их id. Смена статуса через BookingStateMachine
+    // тоже сначала пишет в строку вещи, а потом в бронь, поэтому массовые переходы берут блокировки в том же порядке
+    public List<Long> lockItemsOfBookings(Collection<Long> bookingIds) {
+        return jdbcTemplate.queryForList("SELECT id FROM items WHERE id IN (SELECT b.item_id FROM bookings b WHERE b.id IN (:ids)) " +
+                "ORDER BY id FOR UPDATE", new MapSqlParameterSource("ids", bookingIds), Long.class);
+    }
+
+    // Для массового перевода WAITING -> target мимо BookingStateMachine.fire: учитываются только брони,
+    // которые действительно перешли в target
+    public void transitioned(Collection<Long> bookingIds, BookingStatusType target) {
+        String moved = "(SELECT COUNT(*) FROM bookings b WHERE b.item_id = items.id AND b.id IN (:ids) AND b.status = :target)";
+        jdbcTemplate.update("UPDATE items SET " +
+                        "bookings_waiting = bookings_waiting - " + moved + ", " +
+                        COLUMNS.get(target) + " = " + COLUMNS.get(target) + " + " + moved + " " +
+                        "WHERE id IN (SELECT b.item_id FROM bookings b WHERE b.id IN (:ids))",
+                new MapSqlParameterSource("ids", bookingIds).addValue("target", target.name()));
+    }
+
+    // Перед удалением пользователя: его брони на чужих вещах уйдут каскадом, поэтому счётчики этих вещей
+    // уменьшаются заранее, в той же транзакции. Строки вещей блокируются в порядке id до удаления броней.
+    // Возвращает id затронутых вещей
+    public List<Long> removedBooker(Long bookerId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("bookerId", bookerId);
+        String itemsOfBooker = "SELECT b.item_id FROM bookings b WHERE b.booker_id = :bookerId";
+        List<Long> itemIds = jdbcTemplate.queryForList("SELECT id FROM items WHERE id IN (" + itemsOfBooker + ") " +
+                "AND owner_id <> :bookerId ORDER BY id FOR UPDATE", params, Long.class);
+        if (itemIds.isEmpty()) {
+            return itemIds;
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE items SET ");
+        COLUMNS.forEach((status, column) -> sql.append(column).append(" = ").append(column)
+                .append(" - (SELECT COUNT(*) FROM bookings b WHERE b.item_id = items.id AND b.booker_id = :bookerId ")
+                .append("AND b.status = '").append(status.name()).append("'), "));
+        sql.append("booked_seconds = booked_seconds - (SELECT COALESCE(").append(BOOKED_SECONDS).append(", 0) ")
+                .append("FROM bookings b WHERE b.item_id = items.id AND b.booker_id = :bookerId AND b.status = 'APPROVED') ")
+                .append("WHERE id IN (:itemIds)");
+        jdbcTemplate.update(sql.toString(), params.addValue("itemIds", itemIds));
+        return itemIds;
+    }
+
+    // Пересчитывает счётчики вещей с id в (afterId, lastId] по таблице бронирований.
+    // Строки вещей сначала блокируются: создание и смена статуса брони тоже пишут в строку вещи,
+    // поэтому пересчёт видит либо всю их транзакцию, либо ни одной её части
+    public int recount(long afterId, long lastId) {
+        MapSqlParameterSource params = new MapSqlParameterSource("afterId", afterId).addValue("lastId", lastId);
+        jdbcTemplate.queryForList("SELECT id FROM items WHERE id > :afterId AND id <= :lastId ORDER BY id FOR UPDATE",
+                params, Long.class);
+
+        StringBuilder sql = new StringBuilder("UPDATE items SET ");
+        COLUMNS.forEach((status, column) -> sql.append(column)
+                .append(" = (SELECT COUNT(*) FROM bookings b WHERE b.item_id = items.id AND b.status = '")
+                .append(status.name()).append("'), "));
+        sql.append("booked_seconds = (SELECT COALESCE(").append(BOOKED_SECONDS).append(", 0) ")
+                .append("FROM bookings b WHERE b.item_id = items.id AND b.status = 'APPROVED') ")
+                .append("WHERE id > :afterId AND id <= :lastId");
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+
+    public List<Long> findItemIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM items WHERE id > :afterId ORDER BY id LIMIT :limit",
+                new MapSqlParameterSource("afterId", afterId).addValue("limit", limit), Long.class);
+    }
+
+    public List<ItemUtilizationDto> findByOwner(Long ownerId) {
+        return jdbcTemplate.query("SELECT id, name, bookings_waiting, bookings_approved, bookings_rejected, " +
+                        "bookings_cancelled, bookings_expired, booked_seconds FROM items WHERE owner_id = :ownerId ORDER BY id",
+                new MapSqlParameterSource("ownerId", ownerId),
+                (rs, rowNum) -> ItemUtilizationDto.builder()
+                        .itemId(rs.getLong("id"))
+                        .name(rs.getString("name"))
+                        .waiting(rs.getLong("bookings_waiting"))
+                        .approved(rs.getLong("bookings_approved"))
+                        .rejected(rs.getLong("bookings_rejected"))
+                        .bookings(rs.getLong("bookings_waiting") + rs.getLong("bookings_approved")
+                                + rs.getLong("bookings_rejected") + rs.getLong("bookings_cancelled")
+                                + rs.getLong("bookings_expired"))
+                        .bookedTime(Duration.ofSeconds(rs.getLong("booked_seconds")))
+                        .build());
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.outbox.BookingOutboxRepository;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.statemachine.BookingStateMachine;
+import ru.practicum.shareit.booking.statemachine.BookingTransitionMetrics;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
+import ru.practicum.shareit.util.DbLease;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Переводит в EXPIRED брони, которые ждут ответа владельца после начала аренды или дольше waiting-ttl.
+// Работает порциями UPDATE по id без загрузки сущностей; на нескольких узлах задачу выполняет держатель аренды
+@Slf4j
+@Component
+public class BookingExpiryJob {
+    static final String LEASE_NAME = "booking-expiry";
+
+    private final BookingRepository bookingRepository;
+    private final BookingOutboxRepository bookingOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DbLease dbLease;
+    private final BookingTransitionMetrics bookingTransitionMetrics;
+    private final BookingCounters bookingCounters;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final BookingStatusType expiredStatus;
+    private final Duration waitingTtl;
+    private final Duration leaseDuration;
+    private final int chunkSize;
+
+    public BookingExpiryJob(BookingRepository bookingRepository,
+                            BookingOutboxRepository bookingOutboxRepository,
+                            TransactionTemplate transactionTemplate,
+                            DbLease dbLease,
+                            BookingStateMachine bookingStateMachine,
+                            BookingTransitionMetrics bookingTransitionMetrics,
+                            BookingCounters bookingCounters,
+                            ItemAvailabilityService itemAvailabilityService,
+                            @Value("${shareit.booking.expiry.waiting-ttl:7d}") Duration waitingTtl,
+                            @Value("${shareit.booking.expiry.lease:5m}") Duration leaseDuration,
+                            @Value("${shareit.booking.expiry.chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingOutboxRepository = bookingOutboxRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dbLease = dbLease;
+        this.bookingTransitionMetrics = bookingTransitionMetrics;
+        this.bookingCounters = bookingCounters;
+        this.itemAvailabilityService = itemAvailabilityService;
+        // Целевой статус берётся из таблицы переходов, а не дублируется здесь
+        this.expiredStatus = bookingStateMachine.next(BookingStatusType.WAITING, BookingEvent.EXPIRE);
+        this.waitingTtl = waitingTtl;
+        this.leaseDuration = leaseDuration;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval:PT1M}")
+    public void expire() {
+        run();
+    }
+
+    // Возвращает число просроченных броней, 0 - если аренду держит другой узел
+    public int run() {
+        if (!dbLease.tryAcquire(LEASE_NAME, leaseDuration)) {
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime createdBefore = now.minus(waitingTtl);
+            int expired = 0;
+            List<Long> ids;
+            while (!(ids = bookingRepository.findStaleWaitingIds(now, createdBefore, chunkSize)).isEmpty()) {
+                List<Long> chunk = ids;
+                expired += transactionTemplate.execute(status -> expireChunk(chunk, now));
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                // Долгий прогон продлевает аренду после каждой порции, чтобы второй узел не начал ту же работу
+                if (!dbLease.renew(LEASE_NAME, leaseDuration)) {
+                    log.warn("Аренда {} потеряна, просрочка остановлена после {} бронирований", LEASE_NAME, expired);
+                    break;
+                }
+            }
+            if (expired > 0) {
+                log.info("Просрочено {} бронирований", expired);
+            }
+            return expired;
+        } finally {
+            dbLease.release(LEASE_NAME);
+        }
+    }
+
+    // Сначала строки вещей, потом брони - в том же порядке, что и подтверждение или отказ,
+    // иначе просрочка и параллельная смена статуса могут взаимоблокироваться
+    private int expireChunk(List<Long> ids, LocalDateTime now) {
+        List<Long> itemIds = bookingCounters.lockItemsOfBookings(ids);
+        int expired = bookingRepository.expireWaiting(ids, expiredStatus.name());
+        bookingOutboxRepository.insertForBookings(ids, BookingEvent.EXPIRE.name(), BookingStatusType.WAITING.name(),
+                expiredStatus.name(), now);
+        bookingCounters.transitioned(ids, expiredStatus);
+        itemAvailabilityService.invalidate(itemIds);
+        bookingTransitionMetrics.count(BookingStatusType.WAITING, BookingEvent.EXPIRE, expiredStatus, expired);
+        return expired;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.util.DbLease;
+
+import java.time.Duration;
+import java.util.List;
+
+// Заполняет bookings.owner_id у броней, созданных до появления колонки.
+// Каждая порция обновляется в своей короткой транзакции, поэтому таблица целиком не блокируется.
+// Стартуют все узлы, а проход делает тот, кто взял аренду
+@Slf4j
+@Component
+public class BookingOwnerBackfill {
+    static final String LEASE_NAME = "booking-owner-backfill";
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DbLease dbLease;
+    private final Duration leaseDuration;
+    private final int chunkSize;
+
+    public BookingOwnerBackfill(BookingRepository bookingRepository,
+                                TransactionTemplate transactionTemplate,
+                                DbLease dbLease,
+                                @Value("${shareit.booking.owner-backfill-lease:5m}") Duration leaseDuration,
+                                @Value("${shareit.booking.owner-backfill-chunk-size:1000}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dbLease = dbLease;
+        this.leaseDuration = leaseDuration;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        int updated = run();
+        if (updated > 0) {
+            log.info("Заполнен owner_id у {} бронирований", updated);
+        }
+    }
+
+    // Возвращает число заполненных броней, 0 - если аренду держит другой узел
+    public int run() {
+        if (!dbLease.tryAcquire(LEASE_NAME, leaseDuration)) {
+            return 0;
+        }
+        try {
+            int updated = 0;
+            long lastId = 0;
+            List<Long> ids;
+            // Идём по id, а не по owner_id IS NULL, чтобы брони вещей без владельца не зацикливали проход
+            while (!(ids = bookingRepository.findIdsWithoutOwner(lastId, chunkSize)).isEmpty()) {
+                List<Long> chunk = ids;
+                updated += transactionTemplate.execute(status -> bookingRepository.fillOwnerIds(chunk));
+                lastId = ids.getLast();
+                if (!dbLease.renew(LEASE_NAME, leaseDuration)) {
+                    log.warn("Аренда {} потеряна, заполнение owner_id остановлено после {} бронирований", LEASE_NAME, updated);
+                    break;
+                }
+            }
+            return updated;
+        } finally {
+            dbLease.release(LEASE_NAME);
+        }
+    }
+}
@@ -1,37 +1,66 @@
 package ru.practicum.shareit.booking.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.BookingDto;
 import ru.practicum.shareit.booking.model.BookingEvent;
 import ru.practicum.shareit.booking.model.BookingMapper;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.model.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.BookingVersion;
+import ru.practicum.shareit.booking.model.BookingView;
+import ru.practicum.shareit.booking.model.ItemUtilizationDto;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.statemachine.BookingStateMachine;
 import ru.practicum.shareit.extention.ConditionsNotMetException;
 import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.extention.NotFoundException;
 import ru.practicum.shareit.extention.WrongUserExeption;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.Pagination;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingService {
+    private static final List<BookingStatusType> ACTIVE_STATUSES = List.of(BookingStatusType.WAITING, BookingStatusType.APPROVED);
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
-    private final StateMachineFactory<BookingStatusType, BookingEvent> stateMachineFactory;
+    private final BookingStateMachine bookingStateMachine;
+    private final MeterRegistry meterRegistry;
+    private final BookingCounters bookingCounters;
+    private final ItemAvailabilityService itemAvailabilityService;
+    private final Validator validator;
+
+    @Value("${shareit.booking.batch-max-size:100}")
+    private int batchMaxSize;
 
     public BookingDto getBookingDto(Long bookingId, Long userId) {
         Booking booking = getBooking(bookingId);
@@ -41,57 +70,174 @@ public class BookingService {
         return BookingMapper.toBookingDto(booking);
     }
 
-    public List<BookingDto> readByBookerAndState(BookingState state, Long userId) {
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByBookerIdOrderByStartAsc(userId);
-            case WAITING ->
-                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatusType.WAITING);
-            case REJECTED ->
-                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatusType.REJECTED);
-            case PAST -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
-            case CURRENT ->
-                    bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now());
-            case FUTURE ->
-                    bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
-        };
+    public String getBookingETag(Long bookingId, Long userId) {
+        BookingVersion version = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.BOOKING_NOT_FOUND_ERROR, bookingId)));
+        if (!version.bookerId().equals(userId) && !version.ownerId().equals(userId)) {
+            throw new ConditionsNotMetException(ExceptionMessages.BOOKING_GET_INFO_ERROR);
+        }
+        return version.toETag();
+    }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .toList();
+    // after - id последней брони с предыдущей страницы: следующая читается по курсору (start, id) без OFFSET
+    public List<BookingDto> readByBookerAndState(BookingState state, Long userId, Integer from, Integer size, Long after) {
+        Pageable page = Pagination.of(from, size, after);
+        LocalDateTime start = after == null ? null : bookingRepository.findStartByIdAndBookerId(after, userId)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.BOOKING_NOT_FOUND_ERROR, after)));
+        return listingTimer("booker", state).record(() -> toBookingDtos(after == null
+                ? findByBooker(state, userId, page)
+                : findByBookerAfter(state, userId, start, after, page)));
     }
 
-    public List<BookingDto> readByOwnerAndState(BookingState state, Long userId) {
+    public List<BookingDto> readByOwnerAndState(BookingState state, Long userId, Integer from, Integer size, Long after) {
+        Pageable page = Pagination.of(from, size, after);
         userService.getUser(userId);
-        List<Booking> bookings = switch (state) {
-            case ALL -> bookingRepository.findAllByItemOwnerIdOrderByStartAsc(userId);
-            case WAITING ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatusType.WAITING);
-            case REJECTED ->
-                    bookingRepository.findAllByItemOwnerIdAndStatusOrderByStartDesc(userId, BookingStatusType.REJECTED);
-            case PAST ->
-                    bookingRepository.findAllByItemOwnerIdAndEndBeforeOrderByStartDesc(userId, LocalDateTime.now());
-            case CURRENT ->
-                    bookingRepository.findAllByItemOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, LocalDateTime.now(), LocalDateTime.now());
-            case FUTURE ->
-                    bookingRepository.findAllByItemOwnerIdAndStartAfterOrderByStartDesc(userId, LocalDateTime.now());
-        };
+        LocalDateTime start = after == null ? null : bookingRepository.findStartByIdAndOwnerId(after, userId)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.BOOKING_NOT_FOUND_ERROR, after)));
+        return listingTimer("owner", state).record(() -> toBookingDtos(after == null
+                ? findByOwner(state, userId, page)
+                : findByOwnerAfter(state, userId, start, after, page)));
+    }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .toList();
+    // Статусные состояния берутся из счётчиков вещей. PAST, CURRENT и FUTURE меняются со временем без записи в базу,
+    // поэтому считаются по индексу (owner_id, ...) только среди ещё не закончившихся броней,
+    // а прошедшие - как разность с общим числом, без подсчёта всей истории владельца
+    public BookingSummaryDto getOwnerSummary(Long userId) {
+        userService.getUser(userId);
+        List<ItemUtilizationDto> items = bookingCounters.findByOwner(userId);
+
+        LocalDateTime now = LocalDateTime.now();
+        long all = items.stream().mapToLong(ItemUtilizationDto::getBookings).sum();
+        long notEnded = bookingRepository.countByOwnerIdAndEndGreaterThanEqual(userId, now);
+        long future = bookingRepository.countByOwnerIdAndStartAfter(userId, now);
+
+        Map<BookingState, Long> states = new EnumMap<>(BookingState.class);
+        states.put(BookingState.ALL, all);
+        // Счётчики и подсчёт по датам читаются не атомарно, поэтому разности не опускаем ниже нуля
+        states.put(BookingState.PAST, Math.max(all - notEnded, 0));
+        states.put(BookingState.CURRENT, Math.max(notEnded - future, 0));
+        states.put(BookingState.FUTURE, future);
+        states.put(BookingState.WAITING, items.stream().mapToLong(ItemUtilizationDto::getWaiting).sum());
+        states.put(BookingState.REJECTED, items.stream().mapToLong(ItemUtilizationDto::getRejected).sum());
+        return BookingSummaryDto.builder()
+                .states(states)
+                .items(items)
+                .build();
     }
 
+    // Блокировка строки вещи сериализует бронирования одной вещи, в том числе между инстансами,
+    // поэтому проверка пересечений и вставка не гоняются друг с другом
+    @Transactional
     public BookingDto createBooking(BookingDto bookingDto, Long userId) {
-        User user = userService.getUser(userId);
-        Item item = itemService.getItem(bookingDto.getItemId());
+        User user = userService.getUserReference(userId);
+        Item item = itemService.getItemForUpdate(bookingDto.getItemId());
 
         Booking booking = BookingMapper.toBooking(bookingDto, item, user);
         validateBooking(booking);
         booking = bookingRepository.saveAndFlush(booking);
+        bookingCounters.created(item.getId(), 1);
+        itemAvailabilityService.invalidate(item.getId());
 
         return BookingMapper.toBookingDto(booking);
     }
 
+    // Все брони пакета сохраняются в одной транзакции одним batch insert,
+    // ошибки валидации возвращаются по каждой записи, не прерывая остальные
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(List<BookingDto> bookingDtos, Long userId) {
+        if (bookingDtos.size() > batchMaxSize) {
+            throw new ValidationException(String.format(ExceptionMessages.BOOKING_BATCH_TOO_LARGE, batchMaxSize));
+        }
+        User user = userService.getUserReference(userId);
+
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        // TreeMap - вещи блокируются в одном порядке, чтобы параллельные пакеты не взаимоблокировались
+        Map<Long, List<Integer>> indexesByItem = new TreeMap<>();
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDto bookingDto = bookingDtos.get(i);
+            try {
+                if (bookingDto == null) {
+                    throw new ValidationException(ExceptionMessages.BOOKING_BATCH_EMPTY_ENTRY);
+                }
+                // Те же ограничения, что @Valid проверяет в create, но нарушение остаётся ошибкой своей записи
+                Set<ConstraintViolation<BookingDto>> violations = validator.validate(bookingDto);
+                if (!violations.isEmpty()) {
+                    throw new ValidationException(violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .distinct()
+                            .sorted()
+                            .collect(Collectors.joining("; ")));
+                }
+                if (bookingDto.getItemId() == null) {
+                    throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_ITEM);
+                }
+                checkDates(bookingDto.getStart(), bookingDto.getEnd());
+                indexesByItem.computeIfAbsent(bookingDto.getItemId(), itemId -> new ArrayList<>()).add(i);
+            } catch (ValidationException | ConditionsNotMetException e) {
+                results[i] = failedBatchEntry(i, e);
+            }
+        }
+
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        indexesByItem.forEach((itemId, indexes) -> {
+            Optional<Item> lockedItem = itemService.findItemForUpdate(itemId);
+            if (lockedItem.isEmpty()) {
+                NotFoundException e = new NotFoundException(String.format(ExceptionMessages.ITEM_NOT_FOUND_ERROR, itemId));
+                indexes.forEach(i -> results[i] = failedBatchEntry(i, e));
+                return;
+            }
+            Item item = lockedItem.get();
+
+            List<Booking> candidates = indexes.stream()
+                    .map(i -> BookingMapper.toBooking(bookingDtos.get(i), item, user))
+                    .toList();
+            LocalDateTime from = candidates.stream().map(Booking::getStart).min(LocalDateTime::compareTo).orElseThrow();
+            LocalDateTime to = candidates.stream().map(Booking::getEnd).max(LocalDateTime::compareTo).orElseThrow();
+            List<Booking> taken = new ArrayList<>(bookingRepository
+                    .findAllByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(itemId, ACTIVE_STATUSES, from, to));
+
+            for (int k = 0; k < candidates.size(); k++) {
+                Booking booking = candidates.get(k);
+                try {
+                    checkBooking(booking);
+                    if (taken.stream().anyMatch(other -> overlaps(other, booking))) {
+                        throw new ConditionsNotMetException(ExceptionMessages.BOOKING_ITEM_IS_BOOKED);
+                    }
+                    taken.add(booking);
+                    accepted.add(booking);
+                    acceptedIndexes.add(indexes.get(k));
+                } catch (ValidationException | ConditionsNotMetException e) {
+                    results[indexes.get(k)] = failedBatchEntry(indexes.get(k), e);
+                }
+            }
+        });
+
+        List<Booking> saved = bookingRepository.saveAllAndFlush(accepted);
+        saved.stream()
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), TreeMap::new, Collectors.counting()))
+                .forEach((itemId, count) -> {
+                    bookingCounters.created(itemId, count.intValue());
+                    itemAvailabilityService.invalidate(itemId);
+                });
+        for (int k = 0; k < saved.size(); k++) {
+            int index = acceptedIndexes.get(k);
+            results[index] = BookingBatchResultDto.builder()
+                    .index(index)
+                    .booking(BookingMapper.toBookingDto(saved.get(k)))
+                    .build();
+        }
+        return List.of(results);
+    }
+
+    private static BookingBatchResultDto failedBatchEntry(int index, RuntimeException e) {
+        return BookingBatchResultDto.builder()
+                .index(index)
+                .error(e.getMessage())
+                .build();
+    }
+
+    @Transactional
     public BookingDto updateBookingStatus(Long bookingId, Long userId, Boolean approved) {
         Booking booking = getBooking(bookingId);
         if (!booking.getItem().getOwner().getId().equals(userId)) {
@@ -104,6 +250,7 @@ public class BookingService {
     }
 
     // Отмена брони пользователем
+    @Transactional
     public BookingDto cancelBooking(Long bookingId, Long userId) {
         Booking booking = getBooking(bookingId);
 
@@ -116,12 +263,16 @@ public class BookingService {
     }
 
     private void validateBooking(Booking booking) {
-        Optional<Booking> bookingOptional = bookingRepository.findByItemIdAndEndIsAfterAndStartIsBefore(booking.getItem().getId(), booking.getEnd(), booking.getStart());
+        checkBooking(booking);
 
-        if (bookingOptional.isPresent()) {
+        // Дешёвые проверки выше, запрос в БД только для корректной брони
+        if (bookingRepository.existsByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(booking.getItem().getId(),
+                ACTIVE_STATUSES, booking.getStart(), booking.getEnd())) {
             throw new ConditionsNotMetException(ExceptionMessages.BOOKING_ITEM_IS_BOOKED);
         }
+    }
 
+    private void checkBooking(Booking booking) {
         Item item = booking.getItem();
 
         if (!item.getIsAvailable()) {
@@ -132,27 +283,101 @@ public class BookingService {
             throw new ValidationException(ExceptionMessages.BOOKING_OWNER_CANT_BOOKED);
         }
 
-        if (booking.getEnd().isBefore(booking.getStart())) {
+        checkDates(booking.getStart(), booking.getEnd());
+    }
+
+    private void checkDates(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            throw new ValidationException(ExceptionMessages.BOOKING_DATES_REQUIRED);
+        }
+
+        if (end.isBefore(start)) {
             throw new ValidationException(ExceptionMessages.BOOKING_END_BEFORE_START);
         }
     }
 
+    private static boolean overlaps(Booking first, Booking second) {
+        return first.getStart().isBefore(second.getEnd()) && first.getEnd().isAfter(second.getStart());
+    }
+
     private Booking getBooking(Long bookingId) {
         return Optional.ofNullable(bookingRepository.findById(bookingId))
                 .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.BOOKING_NOT_FOUND_ERROR, bookingId))).get();
     }
 
     private void changeStatus(Booking booking, BookingEvent bookingEvent) {
-        StateMachine<BookingStatusType, BookingEvent> sm = stateMachineFactory.getStateMachine(booking.getId().toString());
-        sm.start();
-        sm.getExtendedState().getVariables().put("booking", booking);
-        sm.sendEvent(bookingEvent);
+        bookingStateMachine.fire(booking, bookingEvent);
+    }
 
-        if (sm.getState() == null) {
-            throw new IllegalStateException("StateMachine is not properly initialized or started.");
-        }
+    private List<BookingView> findByBooker(BookingState state, Long userId, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (state) {
+            case ALL -> bookingRepository.findAllByBookerIdOrderByStartAsc(userId, page);
+            case WAITING ->
+                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatusType.WAITING, page);
+            case REJECTED ->
+                    bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, BookingStatusType.REJECTED, page);
+            case PAST -> bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(userId, now, page);
+            case CURRENT -> bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now, page);
+            case FUTURE -> bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId, now, page);
+        };
+    }
 
-        booking.setStatus(sm.getState().getId());
-        sm.stop();
+    private List<BookingView> findByBookerAfter(BookingState state, Long userId, LocalDateTime start, Long id,
+                                                Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (state) {
+            case ALL -> bookingRepository.findAllByBookerIdAfter(userId, start, id, page);
+            case WAITING ->
+                    bookingRepository.findAllByBookerIdAndStatusAfter(userId, BookingStatusType.WAITING, start, id, page);
+            case REJECTED ->
+                    bookingRepository.findAllByBookerIdAndStatusAfter(userId, BookingStatusType.REJECTED, start, id, page);
+            case PAST -> bookingRepository.findAllByBookerIdAndEndBeforeAfter(userId, now, start, id, page);
+            case CURRENT -> bookingRepository.findAllByBookerIdAndCurrentAfter(userId, now, start, id, page);
+            case FUTURE -> bookingRepository.findAllByBookerIdAndStartAfterAfter(userId, now, start, id, page);
+        };
+    }
+
+    private List<BookingView> findByOwner(BookingState state, Long userId, Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (state) {
+            case ALL -> bookingRepository.findAllByOwnerIdOrderByStartAsc(userId, page);
+            case WAITING ->
+                    bookingRepository.findAllByOwnerIdAndStatusOrderByStartDesc(userId, BookingStatusType.WAITING, page);
+            case REJECTED ->
+                    bookingRepository.findAllByOwnerIdAndStatusOrderByStartDesc(userId, BookingStatusType.REJECTED, page);
+            case PAST -> bookingRepository.findAllByOwnerIdAndEndBeforeOrderByStartDesc(userId, now, page);
+            case CURRENT -> bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(userId, now, now, page);
+            case FUTURE -> bookingRepository.findAllByOwnerIdAndStartAfterOrderByStartDesc(userId, now, page);
+        };
+    }
+
+    private List<BookingView> findByOwnerAfter(BookingState state, Long userId, LocalDateTime start, Long id,
+                                               Pageable page) {
+        LocalDateTime now = LocalDateTime.now();
+        return switch (state) {
+            case ALL -> bookingRepository.findAllByOwnerIdAfter(userId, start, id, page);
+            case WAITING ->
+                    bookingRepository.findAllByOwnerIdAndStatusAfter(userId, BookingStatusType.WAITING, start, id, page);
+            case REJECTED ->
+                    bookingRepository.findAllByOwnerIdAndStatusAfter(userId, BookingStatusType.REJECTED, start, id, page);
+            case PAST -> bookingRepository.findAllByOwnerIdAndEndBeforeAfter(userId, now, start, id, page);
+            case CURRENT -> bookingRepository.findAllByOwnerIdAndCurrentAfter(userId, now, start, id, page);
+            case FUTURE -> bookingRepository.findAllByOwnerIdAndStartAfterAfter(userId, now, start, id, page);
+        };
+    }
+
+    // Время выборки и маппинга списка; запросы к БД отдельно видны в spring.data.repository.invocations
+    private Timer listingTimer(String role, BookingState state) {
+        return Timer.builder("shareit.bookings.listing")
+                .tag("role", role)
+                .tag("state", state.name())
+                .register(meterRegistry);
+    }
+
+    private static List<BookingDto> toBookingDtos(List<BookingView> bookings) {
+        return bookings.stream()
+                .map(BookingMapper::toBookingDto)
+                .toList();
     }
 }
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.statemachine;
+
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.transition.Transition;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.extention.ExceptionMessages;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// Таблица переходов собирается один раз из BookingStateMachineConfig,
+// дальше смена статуса - это поиск в EnumMap без создания машины состояний
+@Component
+public class BookingStateMachine {
+    private final Map<BookingStatusType, Map<BookingEvent, BookingStatusType>> transitions;
+    private final List<BookingTransitionListener> listeners;
+
+    public BookingStateMachine(StateMachineFactory<BookingStatusType, BookingEvent> stateMachineFactory,
+                               ObjectProvider<BookingTransitionListener> listeners) {
+        this.transitions = compile(stateMachineFactory.getStateMachine());
+        this.listeners = listeners.orderedStream().toList();
+    }
+
+    public BookingStatusType next(BookingStatusType source, BookingEvent event) {
+        BookingStatusType target = transitions.getOrDefault(source, Map.of()).get(event);
+        if (target == null) {
+            throw new ValidationException(String.format(ExceptionMessages.BOOKING_STATUS_TRANSITION_ERROR, event, source));
+        }
+        return target;
+    }
+
+    public void fire(Booking booking, BookingEvent event) {
+        BookingStatusType source = booking.getStatus();
+        booking.setStatus(next(source, event));
+        listeners.forEach(listener -> listener.onTransition(booking, source, event));
+    }
+
+    private static Map<BookingStatusType, Map<BookingEvent, BookingStatusType>> compile(
+            StateMachine<BookingStatusType, BookingEvent> stateMachine) {
+        Map<BookingStatusType, EnumMap<BookingEvent, BookingStatusType>> table = new EnumMap<>(BookingStatusType.class);
+        for (Transition<BookingStatusType, BookingEvent> transition : stateMachine.getTransitions()) {
+            if (transition.getGuard() != null || !transition.getActions().isEmpty()) {
+                throw new IllegalStateException("Guards and actions are not supported, use BookingTransitionListener");
+            }
+            table.computeIfAbsent(transition.getSource().getId(), source -> new EnumMap<>(BookingEvent.class))
+                    .put(transition.getTrigger().getEvent(), transition.getTarget().getId());
+        }
+
+        Map<BookingStatusType, Map<BookingEvent, BookingStatusType>> compiled = new EnumMap<>(BookingStatusType.class);
+        table.forEach((source, events) -> compiled.put(source, Collections.unmodifiableMap(events)));
+        return Collections.unmodifiableMap(compiled);
+    }
+}
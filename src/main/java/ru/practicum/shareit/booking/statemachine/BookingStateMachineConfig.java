@@ -40,6 +40,12 @@ public class BookingStateMachineConfig extends EnumStateMachineConfigurerAdapter
                 .withExternal() // WAITING → CANCELLED
                 .source(BookingStatusType.WAITING)
                 .target(BookingStatusType.CANCELLED)
-                .event(BookingEvent.CANCEL);
+                .event(BookingEvent.CANCEL)
+
+                .and()
+                .withExternal() // WAITING → EXPIRED, владелец не ответил вовремя
+                .source(BookingStatusType.WAITING)
+                .target(BookingStatusType.EXPIRED)
+                .event(BookingEvent.EXPIRE);
     }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.statemachine;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+
+public interface BookingTransitionListener {
+    void onTransition(Booking booking, BookingStatusType source, BookingEvent event);
+}
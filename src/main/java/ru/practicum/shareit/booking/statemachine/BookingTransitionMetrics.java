@@ -0,0 +1,31 @@
+package ru.practicum.shareit.booking.statemachine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+
+// Счётчик shareit.booking.transitions с разбивкой по событию и статусам
+@Component
+@RequiredArgsConstructor
+public class BookingTransitionMetrics implements BookingTransitionListener {
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onTransition(Booking booking, BookingStatusType source, BookingEvent event) {
+        count(source, event, booking.getStatus(), 1);
+    }
+
+    // Для массовых переходов, которые идут мимо BookingStateMachine.fire
+    public void count(BookingStatusType source, BookingEvent event, BookingStatusType target, long amount) {
+        Counter.builder("shareit.booking.transitions")
+                .tag("event", event.name())
+                .tag("source", source.name())
+                .tag("target", target.name())
+                .register(meterRegistry)
+                .increment(amount);
+    }
+}
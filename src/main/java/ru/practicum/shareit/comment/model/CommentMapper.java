@@ -15,6 +15,15 @@ public class CommentMapper {
                 .build();
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        return CommentDto.builder()
+                .id(comment.id())
+                .text(comment.text())
+                .authorName(comment.authorName())
+                .created(comment.created())
+                .build();
+    }
+
     public static Comment toComment(CommentDto commentDto, Item item, User user) {
         return Comment.builder()
                 .text(commentDto.getText())
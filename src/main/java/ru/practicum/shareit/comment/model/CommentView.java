@@ -0,0 +1,6 @@
+package ru.practicum.shareit.comment.model;
+
+import java.time.LocalDateTime;
+
+public record CommentView(Long id, String text, String authorName, LocalDateTime created, Long itemId) {
+}
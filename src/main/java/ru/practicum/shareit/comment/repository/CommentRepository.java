@@ -1,12 +1,29 @@
 package ru.practicum.shareit.comment.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.comment.model.Comment;
+import ru.practicum.shareit.comment.model.CommentView;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
+    String COMMENT_VIEW = "select new ru.practicum.shareit.comment.model.CommentView(" +
+            "comment.id, comment.text, author.name, comment.created, comment.item.id) " +
+            "from Comment comment join comment.author author ";
+
+    @Query(COMMENT_VIEW + "where comment.item.id = ?1 order by comment.id")
+    List<CommentView> findAllByItemId(Long itemId);
+
+    @Query(COMMENT_VIEW + "where comment.item.id in ?1 order by comment.id")
+    List<CommentView> findAllByItemIdIn(Collection<Long> itemIds);
+
+    // Меняется при добавлении или удалении отзыва и при изменении отзыва или его автора
+    @Query("select concat(cast(count(comment) as String), '-', cast(coalesce(max(comment.id), 0) as String), '-', " +
+            "cast(coalesce(sum(comment.version + author.version), 0) as String)) " +
+            "from Comment comment join comment.author author where comment.item.id = ?1")
+    String findVersionByItemId(Long itemId);
 }
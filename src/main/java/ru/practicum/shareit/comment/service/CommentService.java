@@ -3,30 +3,46 @@ package ru.practicum.shareit.comment.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.comment.model.CommentDto;
 import ru.practicum.shareit.comment.model.CommentMapper;
+import ru.practicum.shareit.comment.model.CommentView;
 import ru.practicum.shareit.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class CommentService {
     private final CommentRepository commentRepository;
 
+    @Transactional
     public CommentDto createComment(Item item, CommentDto commentDto, User user) {
         Comment comment = CommentMapper.toComment(commentDto, item, user);
         return CommentMapper.toCommentDto(commentRepository.saveAndFlush(comment));
     }
 
     public List<CommentDto> getItemComments(Long itemId) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-        return comments.stream()
+        return commentRepository.findAllByItemId(itemId).stream()
                 .map(CommentMapper::toCommentDto)
                 .toList();
     }
+
+    public String getItemCommentsETag(Long itemId) {
+        return commentRepository.findVersionByItemId(itemId);
+    }
+
+    public Map<Long, List<CommentDto>> getItemsComments(Collection<Long> itemIds) {
+        return commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentView::itemId,
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+    }
 }
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.util.NumberUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.TooManyRequestsException;
+import ru.practicum.shareit.util.TokenBucket;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Ограничивает частоту запросов пользователя (X-Sharer-User-Id) отдельно для каждой группы эндпоинтов.
+// Группа ищется по шаблону, который уже сопоставил HandlerMapping, поэтому путь повторно не разбирается
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String USER_HEADER = "X-Sharer-User-Id";
+    // Общее ведро для запросов без заголовка или с нечисловым значением
+    private static final Long ANONYMOUS = Long.MIN_VALUE;
+    private static final String DEFAULT_GROUP = "default";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<String, Group> groupsByPath = new HashMap<>();
+    private final Group defaultGroup;
+    private final int groupCount;
+    // Вёдра пользователя по номеру группы. Ключ - разобранный id, а не строка заголовка:
+    // иначе "1", "01" и " 1" получили бы разные вёдра, хотя контроллер видит в них одного пользователя
+    private final Cache<Long, AtomicReferenceArray<TokenBucket>> buckets;
+
+    public RateLimitInterceptor(RateLimitProperties properties) {
+        this.defaultGroup = new Group(0, DEFAULT_GROUP, properties.getDefaultLimit());
+        int index = 1;
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            Group group = new Group(index++, entry.getKey(), entry.getValue());
+            entry.getValue().getPaths().forEach(path -> groupsByPath.put(path, group));
+        }
+        this.groupCount = index;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxUsers())
+                .expireAfterAccess(properties.getIdleTimeout())
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Group group = pattern == null ? defaultGroup : groupsByPath.getOrDefault(pattern, defaultGroup);
+        Long key = userKey(request.getHeader(USER_HEADER));
+
+        long now = System.nanoTime();
+        long wait = bucket(key, group, now).tryAcquire(now);
+        if (wait > 0) {
+            throw new TooManyRequestsException(ExceptionMessages.TOO_MANY_REQUESTS,
+                    (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        }
+        return true;
+    }
+
+    // Разбор тот же, что при привязке заголовка к Long в контроллерах
+    private static Long userKey(String header) {
+        if (header == null) {
+            return ANONYMOUS;
+        }
+        try {
+            return NumberUtils.parseNumber(header, Long.class);
+        } catch (IllegalArgumentException e) {
+            return ANONYMOUS;
+        }
+    }
+
+    private TokenBucket bucket(Long key, Group group, long now) {
+        AtomicReferenceArray<TokenBucket> userBuckets = buckets.getIfPresent(key);
+        if (userBuckets == null) {
+            userBuckets = buckets.get(key, k -> new AtomicReferenceArray<>(groupCount));
+        }
+        TokenBucket bucket = userBuckets.get(group.index());
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket(group.limit().getCapacity(), group.limit().getRefillPerSecond(), now);
+            bucket = userBuckets.compareAndExchange(group.index(), null, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket;
+    }
+
+    private record Group(int index, String name, RateLimitProperties.Limit limit) {
+    }
+}
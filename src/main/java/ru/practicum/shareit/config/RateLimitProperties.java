@@ -0,0 +1,35 @@
+package ru.practicum.shareit.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Сколько пользователей держать в памяти, лишние и давно не приходившие вытесняются вместе с вёдрами
+    private long maxUsers = 100_000;
+    private Duration idleTimeout = Duration.ofMinutes(10);
+    private Limit defaultLimit = new Limit();
+    // Группы эндпоинтов: ключ - имя группы, paths - шаблоны из @RequestMapping
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        private int capacity = 100;
+        private double refillPerSecond = 50;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Route extends Limit {
+        private List<String> paths = new ArrayList<>();
+    }
+}
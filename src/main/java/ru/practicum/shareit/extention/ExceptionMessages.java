@@ -3,14 +3,25 @@ package ru.practicum.shareit.extention;
 public class ExceptionMessages {
     public static final String USER_NOT_FOUND_ERROR = "Пользователь с id = %d не найден";
     public static final String ITEM_NOT_FOUND_ERROR = "Вешь с id = %d не найдена";
+    public static final String REQUEST_NOT_FOUND_ERROR = "Запрос с id = %d не найден";
     public static final String BOOKING_NOT_FOUND_ERROR = "Бронирование с id = %d не найдено";
     public static final String BOOKING_CHANGE_STATUS = "Только владелец предмета может менять статус бронирования";
+    public static final String BOOKING_STATUS_TRANSITION_ERROR = "Событие %s недопустимо для бронирования в статусе %s";
     public static final String BOOKING_ITEM_IS_BOOKED = "Предмет уже забронирован на это время";
     public static final String BOOKING_ITEM_IS_NOT_AVAILABLE = "Предмет недоступен для аренды";
     public static final String BOOKING_OWNER_CANT_BOOKED = "Владелец предмета не может арендовать его сам";
+    public static final String BOOKING_DATES_REQUIRED = "Время начала и окончания бронирования обязательны";
+    public static final String BOOKING_BATCH_TOO_LARGE = "В пакете может быть не больше %d бронирований";
+    public static final String BOOKING_BATCH_EMPTY_ENTRY = "Пустая запись в пакете бронирований";
     public static final String BOOKING_END_BEFORE_START = "Время окончания бронирования должно быть после времени начала";
     public static final String BOOKING_GET_INFO_ERROR = "Только владелец ил бронирующий может получить информацию о бронировании";
+    public static final String AVAILABILITY_ITEMS_LIMIT = "Нужно указать от 1 до %d вещей";
+    public static final String AVAILABILITY_WINDOW_ERROR = "Окно должно заканчиваться позже начала и быть не длиннее %d дней";
     public static final String NOT_FOUND_ITEM = "Предмет не найден";
     public static final String NOT_FOUND_USER = "Пользователь не найден";
+    public static final String PAGINATION_PARAMS_ERROR = "Параметр from не может быть отрицательным, а size должен быть больше нуля";
+    public static final String PAGINATION_CURSOR_ERROR = "Параметр from нельзя указывать вместе с after";
+    public static final String CONCURRENT_MODIFICATION = "Объект был изменён другим запросом, повторите операцию";
+    public static final String TOO_MANY_REQUESTS = "Слишком много запросов, повторите позже";
     public static final String NOT_WAS_RENT = "Пользователь не арендовал предмет или время аренды еще не вышло";
 }
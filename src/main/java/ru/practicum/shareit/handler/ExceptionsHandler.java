@@ -2,8 +2,10 @@ package ru.practicum.shareit.handler;
 
 import jakarta.validation.ValidationException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -11,7 +13,9 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.shareit.extention.ConditionsNotMetException;
+import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.extention.TooManyRequestsException;
 import ru.practicum.shareit.extention.WrongUserExeption;
 
 import java.util.ArrayList;
@@ -61,6 +65,21 @@ public class ExceptionsHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLock(final ObjectOptimisticLockingFailureException e) {
+        log.info(e.getMessage());
+        return new ErrorResponse(ExceptionMessages.CONCURRENT_MODIFICATION);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(final TooManyRequestsException e) {
+        log.info("{}, повтор через {} с", e.getMessage(), e.getRetryAfterSeconds());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new ErrorResponse(e.getMessage()));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleException(final Exception e) {
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item.controller;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,11 +14,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.comment.model.CommentDto;
 import ru.practicum.shareit.comment.service.CommentService;
+import ru.practicum.shareit.item.model.ItemAvailabilityDto;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.model.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,6 +31,7 @@ import java.util.List;
 public class ItemController {
     private final ItemService itemService;
     private final CommentService commentService;
+    private final ItemAvailabilityService itemAvailabilityService;
 
     @GetMapping
     public List<ItemDto> findAllOwned(@RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -34,14 +40,49 @@ public class ItemController {
 
     @GetMapping("/{id}")
     public ItemDto findById(@PathVariable Long id,
-                            @RequestHeader("X-Sharer-User-Id") Long userId) {
+                            @RequestHeader("X-Sharer-User-Id") Long userId,
+                            WebRequest request) {
+        // При совпадении If-None-Match отвечаем 304, не собирая DTO с отзывами
+        if (request.checkNotModified(itemService.getItemETag(id))) {
+            return null;
+        }
         return itemService.getItemDto(id);
     }
 
+    @GetMapping("/{id}/availability")
+    public ItemAvailabilityDto getAvailability(@PathVariable Long id,
+                                               @RequestHeader("X-Sharer-User-Id") Long userId,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                               @RequestParam(required = false)
+                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemAvailabilityService.getItemAvailability(id, from, to);
+    }
+
+    // Свободные окна для целой страницы каталога одним вызовом
+    @GetMapping("/availability")
+    public List<ItemAvailabilityDto> getAvailabilities(@RequestParam List<Long> ids,
+                                                       @RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam(required = false)
+                                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return itemAvailabilityService.getItemsAvailability(ids, from, to);
+    }
+
     @GetMapping("/search")
     public List<ItemDto> search(@RequestParam String text,
-                                @RequestHeader("X-Sharer-User-Id") Long userId) {
-        return itemService.searchItems(text);
+                                @RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestParam(required = false, defaultValue = "0") Integer from,
+                                @RequestParam(required = false) Integer size) {
+        return itemService.searchItems(text, from, size);
+    }
+
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam String prefix,
+                                @RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestParam(required = false, defaultValue = "10") Integer size) {
+        return itemService.suggestItemNames(prefix, size);
     }
 
     @PostMapping
@@ -65,7 +106,10 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}/comment")
-    public List<CommentDto> getItemComments(@PathVariable Long itemId) {
+    public List<CommentDto> getItemComments(@PathVariable Long itemId, WebRequest request) {
+        if (request.checkNotModified(commentService.getItemCommentsETag(itemId))) {
+            return null;
+        }
         return commentService.getItemComments(itemId);
     }
 }
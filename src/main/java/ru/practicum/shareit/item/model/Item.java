@@ -7,6 +7,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -36,6 +37,9 @@ public class Item {
     @ManyToOne
     private User owner;
 
-    @Column(name = "request_id", nullable = false)
+    @Column(name = "request_id")
     private Long request;
+
+    @Version
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+// Свободные промежутки вещи внутри запрошенного окна; у недоступной вещи их нет
+@Data
+@Builder
+public class ItemAvailabilityDto {
+    private Long itemId;
+    @JsonProperty("available")
+    private Boolean isAvailable;
+    private List<TimeIntervalDto> free;
+}
@@ -23,6 +23,8 @@ public class ItemDto {
     @JsonProperty("available")
     private Boolean isAvailable;
 
+    private Long requestId;
+
     private BookingDto lastBooking;
     private BookingDto nextBooking;
     private List<CommentDto> comments;
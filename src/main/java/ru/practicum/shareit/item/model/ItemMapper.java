@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.model;
 
 import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingDto;
 import ru.practicum.shareit.comment.model.CommentDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -14,18 +15,38 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .isAvailable(item.getIsAvailable())
+                .requestId(item.getRequest())
                 .build();
     }
 
-    public static ItemDto toItemDto(Item item, List<CommentDto> comments) {
-        ItemDto itemOwnerDto = ItemDto.builder()
-                .id(item.getId())
-                .isAvailable(item.getIsAvailable())
-                .name(item.getName())
-                .description(item.getDescription())
+    public static ItemDto toItemDto(ItemView item) {
+        return ItemDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .description(item.description())
+                .isAvailable(item.isAvailable())
+                .requestId(item.requestId())
                 .build();
+    }
+
+    public static ItemDto toItemDto(ItemSnapshot item, List<CommentDto> comments) {
+        ItemDto itemDto = ItemDto.builder()
+                .id(item.id())
+                .isAvailable(item.isAvailable())
+                .name(item.name())
+                .description(item.description())
+                .requestId(item.requestId())
+                .build();
+
+        itemDto.setComments(comments);
+        return itemDto;
+    }
 
+    public static ItemDto toItemDto(ItemView item, BookingDto lastBooking, BookingDto nextBooking, List<CommentDto> comments) {
+        ItemDto itemOwnerDto = toItemDto(item);
         itemOwnerDto.setComments(comments);
+        itemOwnerDto.setLastBooking(lastBooking);
+        itemOwnerDto.setNextBooking(nextBooking);
         return itemOwnerDto;
     }
 
@@ -36,6 +57,7 @@ public class ItemMapper {
                 .description(itemDto.getDescription())
                 .isAvailable(itemDto.getIsAvailable())
                 .owner(owner)
+                .request(itemDto.getRequestId())
                 .build();
     }
 }
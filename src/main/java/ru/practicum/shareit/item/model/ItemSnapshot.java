@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.model;
+
+// Неизменяемая копия вещи для кэша: сущность с @Version нельзя делить между потоками и транзакциями
+public record ItemSnapshot(Long id, String name, String description, Boolean isAvailable, Long ownerId,
+                           Long requestId, Long version) {
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(item.getId(), item.getName(), item.getDescription(), item.getIsAvailable(),
+                item.getOwner().getId(), item.getRequest(), item.getVersion());
+    }
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.item.model;
+
+public record ItemView(Long id, String name, String description, Boolean isAvailable, Long requestId) {
+}
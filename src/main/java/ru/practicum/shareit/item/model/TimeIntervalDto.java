@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class TimeIntervalDto {
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
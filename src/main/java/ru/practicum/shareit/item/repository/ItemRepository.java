@@ -1,18 +1,50 @@
 package ru.practicum.shareit.item.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.request.model.ItemOfferView;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long ownerId);
+    String ITEM_VIEW = "select new ru.practicum.shareit.item.model.ItemView(" +
+            "item.id, item.name, item.description, item.isAvailable, item.request) from Item item ";
 
-    @Query("select item from Item item " +
+    @Query(ITEM_VIEW + "where item.owner.id = ?1 order by item.id")
+    List<ItemView> findAllByOwnerId(Long ownerId);
+
+    @Query(ITEM_VIEW + "where item.id in ?1")
+    List<ItemView> findAllViewsByIds(Collection<Long> ids);
+
+    // Совпадения в названии выше совпадений в описании
+    @Query(ITEM_VIEW +
             "where item.isAvailable = TRUE and (upper(item.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(item.description) like upper(concat('%', ?1, '%')))")
-    List<Item> findAllBySearch(String search);
-}
\ No newline at end of file
+            "or upper(item.description) like upper(concat('%', ?1, '%'))) " +
+            "order by case when upper(item.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, item.id")
+    List<ItemView> findAllBySearch(String search, Pageable pageable);
+
+    // Порция доступных вещей после lastId для загрузки индекса подсказок
+    @Query(ITEM_VIEW + "where item.isAvailable = TRUE and item.id > ?1 order by item.id")
+    List<ItemView> findAvailableAfter(Long lastId, Pageable pageable);
+
+    // Названия, которые надо убрать из индекса подсказок, когда вещи владельца удалит каскад
+    @Query("select item.name from Item item where item.owner.id = ?1 and item.isAvailable = TRUE")
+    List<String> findAvailableNamesByOwnerId(Long ownerId);
+
+    @Query("select new ru.practicum.shareit.request.model.ItemOfferView(" +
+            "item.id, item.name, item.owner.id, item.request) from Item item where item.request in ?1 order by item.id")
+    List<ItemOfferView> findOffersByRequestIds(Collection<Long> requestIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select item from Item item where item.id = ?1")
+    Optional<Item> findByIdForUpdate(Long id);
+}
@@ -0,0 +1,163 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.validation.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingInterval;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.statemachine.BookingTransitionListener;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.item.model.ItemAvailabilityDto;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.model.TimeIntervalDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Свободные окна вещей. Для каждой вещи кэшируются слитые интервалы её ещё не закончившихся
+// ожидающих и подтверждённых броней, так что любое окно запроса считается из кэша без базы.
+// Запись сбрасывается после коммита создания брони или смены её статуса, остальное добирает короткий TTL
+@Service
+public class ItemAvailabilityService implements BookingTransitionListener {
+    public static final String CACHE_NAME = "itemAvailability";
+    private static final List<BookingStatusType> BUSY_STATUSES = List.of(BookingStatusType.WAITING, BookingStatusType.APPROVED);
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, List<BookingInterval>> busyByItem;
+    private final int maxItems;
+    private final Duration defaultWindow;
+    private final Duration maxWindow;
+
+    public ItemAvailabilityService(ItemRepository itemRepository,
+                                   BookingRepository bookingRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${shareit.item.availability.cache-size:10000}") long cacheSize,
+                                   @Value("${shareit.item.availability.ttl:10s}") Duration ttl,
+                                   @Value("${shareit.item.availability.max-items:100}") int maxItems,
+                                   @Value("${shareit.item.availability.default-window:30d}") Duration defaultWindow,
+                                   @Value("${shareit.item.availability.max-window:366d}") Duration maxWindow) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+        this.busyByItem = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, busyByItem, CACHE_NAME);
+        this.maxItems = maxItems;
+        this.defaultWindow = defaultWindow;
+        this.maxWindow = maxWindow;
+    }
+
+    @Transactional(readOnly = true)
+    public ItemAvailabilityDto getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        List<ItemAvailabilityDto> availability = getItemsAvailability(List.of(itemId), from, to);
+        if (availability.isEmpty()) {
+            throw new NotFoundException(String.format(ExceptionMessages.ITEM_NOT_FOUND_ERROR, itemId));
+        }
+        return availability.getFirst();
+    }
+
+    // Несуществующие вещи в ответ не попадают, порядок - как в запросе
+    @Transactional(readOnly = true)
+    public List<ItemAvailabilityDto> getItemsAvailability(Collection<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        Set<Long> ids = new LinkedHashSet<>(itemIds);
+        if (ids.isEmpty() || ids.size() > maxItems) {
+            throw new ValidationException(String.format(ExceptionMessages.AVAILABILITY_ITEMS_LIMIT, maxItems));
+        }
+        // Прошедшее время забронировать нельзя, поэтому окно начинается не раньше текущего момента
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = from == null || from.isBefore(now) ? now : from;
+        LocalDateTime end = to == null ? start.plus(defaultWindow) : to;
+        if (!end.isAfter(start) || Duration.between(start, end).compareTo(maxWindow) > 0) {
+            throw new ValidationException(String.format(ExceptionMessages.AVAILABILITY_WINDOW_ERROR, maxWindow.toDays()));
+        }
+
+        Map<Long, Boolean> available = itemRepository.findAllViewsByIds(ids).stream()
+                .collect(Collectors.toMap(ItemView::id, ItemView::isAvailable));
+        List<Long> bookable = ids.stream().filter(id -> Boolean.TRUE.equals(available.get(id))).toList();
+        Map<Long, List<BookingInterval>> busy = busyByItem.getAll(bookable, this::loadBusy);
+
+        return ids.stream()
+                .filter(available::containsKey)
+                .map(id -> ItemAvailabilityDto.builder()
+                        .itemId(id)
+                        .isAvailable(available.get(id))
+                        .free(available.get(id) ? freeIntervals(busy.get(id), start, end) : List.of())
+                        .build())
+                .toList();
+    }
+
+    public void invalidate(Long itemId) {
+        AfterCommit.run(() -> busyByItem.invalidate(itemId));
+    }
+
+    public void invalidate(Collection<Long> itemIds) {
+        AfterCommit.run(() -> busyByItem.invalidateAll(itemIds));
+    }
+
+    @Override
+    public void onTransition(Booking booking, BookingStatusType source, BookingEvent event) {
+        invalidate(booking.getItem().getId());
+    }
+
+    // Один запрос по всем вещам без кэша; брони приходят отсортированными по вещи и началу,
+    // поэтому пересекающиеся и смежные интервалы сливаются за один проход
+    private Map<Long, List<BookingInterval>> loadBusy(Set<? extends Long> itemIds) {
+        Map<Long, List<BookingInterval>> busy = itemIds.stream()
+                .collect(Collectors.toMap(id -> id, id -> new ArrayList<>()));
+        for (BookingInterval booking : bookingRepository.findBusyIntervals(itemIds, BUSY_STATUSES, LocalDateTime.now())) {
+            List<BookingInterval> merged = busy.get(booking.itemId());
+            BookingInterval last = merged.isEmpty() ? null : merged.getLast();
+            if (last != null && !booking.start().isAfter(last.end())) {
+                if (booking.end().isAfter(last.end())) {
+                    merged.set(merged.size() - 1, new BookingInterval(last.itemId(), last.start(), booking.end()));
+                }
+            } else {
+                merged.add(booking);
+            }
+        }
+        return busy.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> List.copyOf(entry.getValue())));
+    }
+
+    private static List<TimeIntervalDto> freeIntervals(List<BookingInterval> busy, LocalDateTime start, LocalDateTime end) {
+        List<TimeIntervalDto> free = new ArrayList<>();
+        LocalDateTime cursor = start;
+        for (BookingInterval interval : busy) {
+            if (!interval.end().isAfter(cursor)) {
+                continue;
+            }
+            if (!interval.start().isBefore(end)) {
+                break;
+            }
+            if (interval.start().isAfter(cursor)) {
+                free.add(TimeIntervalDto.builder().start(cursor).end(interval.start()).build());
+            }
+            cursor = interval.end();
+        }
+        if (cursor.isBefore(end)) {
+            free.add(TimeIntervalDto.builder().start(cursor).end(end).build());
+        }
+        return free;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.extention.ConditionsNotMetException;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+// Кэшированный поиск вещи вынесен в отдельный бин: вызов из самого ItemService прошёл бы мимо прокси
+@Component
+@RequiredArgsConstructor
+public class ItemLookup {
+    private final ItemRepository itemRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = CacheConfig.ITEMS, key = "#id", condition = "#id != null")
+    public ItemSnapshot getItem(Long id) {
+        if (id == null) {
+            throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_ITEM);
+        }
+
+        return itemRepository.findById(id)
+                .map(ItemSnapshot::of)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.ITEM_NOT_FOUND_ERROR, id)));
+    }
+
+    // После коммита: иначе параллельный запрос успеет вернуть в кэш ещё не изменённую строку
+    public void evict(Long id) {
+        AfterCommit.run(() -> cacheManager.getCache(CacheConfig.ITEMS).evict(id));
+    }
+
+    public void evictAll() {
+        AfterCommit.run(() -> cacheManager.getCache(CacheConfig.ITEMS).clear());
+    }
+}
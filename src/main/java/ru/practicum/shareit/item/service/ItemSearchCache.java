@@ -0,0 +1,57 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.util.AfterCommit;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Кэш результатов /items/search. Поколение входит в ключ: изменение любой вещи увеличивает его,
+// и старые записи просто перестают находиться, а вытесняет их сам Caffeine по размеру и TTL
+@Component
+public class ItemSearchCache {
+    public static final String NAME = "itemSearch";
+
+    private final AtomicLong epoch = new AtomicLong();
+    private final Cache<Key, List<ItemDto>> cache;
+
+    public ItemSearchCache(MeterRegistry meterRegistry,
+                           @Value("${shareit.item.search-cache.max-size:1000}") long maxSize,
+                           @Value("${shareit.item.search-cache.ttl:30s}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    // Поиск регистронезависимый, поэтому регистр и крайние пробелы на результат не влияют
+    public static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public List<ItemDto> get(String text, Integer from, Integer size, Supplier<List<ItemDto>> loader) {
+        // Поколение читаем до запроса в базу: если вещь изменится во время поиска,
+        // результат ляжет под старым поколением и новым запросам не попадётся
+        Key key = new Key(epoch.get(), text, from, size);
+        return cache.get(key, k -> List.copyOf(loader.get()));
+    }
+
+    // Сдвигаем поколение после коммита, иначе поиск между сдвигом и коммитом закэширует старые данные
+    public void invalidate() {
+        AfterCommit.run(epoch::incrementAndGet);
+    }
+
+    private record Key(long epoch, String text, Integer from, Integer size) {
+    }
+}
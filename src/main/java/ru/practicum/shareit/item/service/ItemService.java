@@ -3,7 +3,14 @@ package ru.practicum.shareit.item.service;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingMapper;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.model.BookingView;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.comment.model.CommentDto;
 import ru.practicum.shareit.comment.service.CommentService;
@@ -12,44 +19,92 @@ import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.extention.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemMapper;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.model.ItemView;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.AfterCommit;
+import ru.practicum.shareit.util.Pagination;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemService {
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final UserService userService;
     private final ItemRepository itemRepository;
     private final CommentService commentService;
     private final BookingRepository bookingRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemLookup itemLookup;
 
     public ItemDto getItemDto(Long id) {
         return ItemMapper.toItemDto(getItem(id), commentService.getItemComments(id));
     }
 
+    // Версия вещи из кэша и один агрегирующий запрос по отзывам вместо загрузки всех отзывов
+    public String getItemETag(Long id) {
+        return getItem(id).version() + "-" + commentService.getItemCommentsETag(id);
+    }
+
     public List<ItemDto> getUserItems(Long userId) {
         userService.getUser(userId);
-        return itemRepository.findAllByOwnerId(userId)
-                .stream()
-                .map(ItemMapper::toItemDto)
+        List<ItemView> items = itemRepository.findAllByOwnerId(userId);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        // Бронирования и отзывы подтягиваем для всех вещей сразу, а не по запросу на каждую
+        List<Long> itemIds = items.stream().map(ItemView::id).toList();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDto> lastBookings = toBookingsByItem(
+                bookingRepository.findLastBookingsByItemIds(itemIds, BookingStatusType.APPROVED, now));
+        Map<Long, BookingDto> nextBookings = toBookingsByItem(
+                bookingRepository.findNextBookingsByItemIds(itemIds, BookingStatusType.APPROVED, now));
+        Map<Long, List<CommentDto>> comments = commentService.getItemsComments(itemIds);
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item,
+                        lastBookings.get(item.id()),
+                        nextBookings.get(item.id()),
+                        comments.getOrDefault(item.id(), List.of())))
                 .toList();
     }
 
+    @Transactional
     public ItemDto createItem(ItemDto itemDto, Long userId) {
-        userService.getUser(userId);
-        return ItemMapper.toItemDto(itemRepository.saveAndFlush(ItemMapper.toItem(itemDto, userService.getUser(userId))));
+        User owner = userService.getUserReference(userId);
+        if (itemDto.getRequestId() != null && !itemRequestRepository.existsById(itemDto.getRequestId())) {
+            throw new NotFoundException(String.format(ExceptionMessages.REQUEST_NOT_FOUND_ERROR, itemDto.getRequestId()));
+        }
+        Item item = itemRepository.saveAndFlush(ItemMapper.toItem(itemDto, owner));
+        itemSearchCache.invalidate();
+        reindexSuggestions(null, false, item.getName(), item.getIsAvailable());
+        return ItemMapper.toItemDto(item);
     }
 
+    @Transactional
     public ItemDto updateItem(Long id, ItemDto itemDto, Long userId) {
         userIsOwner(id, userId);
 
-        Item item = getItem(id);
+        Item item = itemRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.ITEM_NOT_FOUND_ERROR, id)));
+        String oldName = item.getName();
+        boolean wasAvailable = item.getIsAvailable();
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -60,50 +115,102 @@ public class ItemService {
             item.setIsAvailable(itemDto.getIsAvailable());
         }
 
+        itemSearchCache.invalidate();
+        itemLookup.evict(id);
+        reindexSuggestions(oldName, wasAvailable, item.getName(), item.getIsAvailable());
         return ItemMapper.toItemDto(itemRepository.saveAndFlush(item));
     }
 
+    @Transactional
     public void deleteItem(Long itemId, Long userId) {
         userIsOwner(itemId, userId);
+        ItemSnapshot item = getItem(itemId);
+        itemSearchCache.invalidate();
+        itemLookup.evict(itemId);
+        reindexSuggestions(item.name(), item.isAvailable(), null, false);
         itemRepository.deleteById(itemId);
     }
 
-    public List<ItemDto> searchItems(String text) {
+    public List<String> suggestItemNames(String prefix, Integer size) {
+        if (size == null || size <= 0) {
+            throw new ValidationException(ExceptionMessages.PAGINATION_PARAMS_ERROR);
+        }
+        return itemSuggestIndex.suggest(prefix, Math.min(size, MAX_SUGGESTIONS));
+    }
+
+    // Индекс подсказок меняем только после коммита, чтобы откат не оставил в нём лишних названий
+    private void reindexSuggestions(String oldName, boolean wasAvailable, String newName, boolean isAvailable) {
+        if (wasAvailable == isAvailable && Objects.equals(oldName, newName)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            if (wasAvailable) {
+                itemSuggestIndex.remove(oldName);
+            }
+            if (isAvailable) {
+                itemSuggestIndex.add(newName);
+            }
+        });
+    }
+
+    public List<ItemDto> searchItems(String text, Integer from, Integer size) {
+        Pageable page = Pagination.of(from, size);
         if (text == null || text.isBlank()) {
             return List.of();
         }
-        return itemRepository.findAllBySearch(text).stream()
+        String search = ItemSearchCache.normalize(text);
+        return itemSearchCache.get(search, from, size, () -> itemRepository.findAllBySearch(search, page).stream()
                 .map(ItemMapper::toItemDto)
-                .toList();
+                .toList());
+    }
+
+    public ItemSnapshot getItem(Long id) {
+        return itemLookup.getItem(id);
     }
 
-    public Item getItem(Long id) {
+    // Блокирует строку вещи до конца текущей транзакции
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Item getItemForUpdate(Long id) {
         if (id == null) {
             throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_ITEM);
         }
 
-        return itemRepository.findById(id)
+        return findItemForUpdate(id)
                 .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.ITEM_NOT_FOUND_ERROR, id)));
     }
 
+    // Без исключения, чтобы отсутствие вещи не помечало общую транзакцию на откат
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Item> findItemForUpdate(Long id) {
+        return itemRepository.findByIdForUpdate(id);
+    }
+
     public void userIsOwner(Long id, Long userId) {
         if (userId == null) {
             throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_USER);
         }
 
-        if (!getItem(id).getOwner().getId().equals(userId)) {
+        if (!getItem(id).ownerId().equals(userId)) {
             throw new ConditionsNotMetException("Пользователь не владелец предмета");
         }
     }
 
+    private Map<Long, BookingDto> toBookingsByItem(List<BookingView> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(BookingView::itemId, BookingMapper::toBookingDto,
+                        (first, second) -> first));
+    }
+
+    @Transactional
     public CommentDto createItemComment(Long itemId, CommentDto commentDto, Long userId) {
-        Item item = getItem(itemId);
-        User user = userService.getUser(userId);
+        getItem(itemId);
+        User user = userService.getUserReference(userId);
 
-        bookingRepository.findByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now())
-                .orElseThrow(() -> new ValidationException(ExceptionMessages.NOT_WAS_RENT));
+        if (!bookingRepository.existsByItemIdAndBookerIdAndEndBefore(itemId, userId, LocalDateTime.now())) {
+            throw new ValidationException(ExceptionMessages.NOT_WAS_RENT);
+        }
 
 
-        return commentService.createComment(item, commentDto, user);
+        return commentService.createComment(itemRepository.getReferenceById(itemId), commentDto, user);
     }
 }
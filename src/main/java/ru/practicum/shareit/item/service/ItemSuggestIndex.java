@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Подсказки по началу названия доступных вещей. Названия лежат в отсортированной skip-list,
+// поэтому подсказки по префиксу - это поиск начала диапазона и чтение первых limit узлов
+@Slf4j
+@Component
+public class ItemSuggestIndex implements SmartInitializingSingleton {
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+
+    // Ключ - нормализованное название, значение - исходное написание и число вещей с таким названием
+    private final ConcurrentSkipListMap<String, Suggestion> names = new ConcurrentSkipListMap<>();
+    private final ItemRepository itemRepository;
+    private final int loadChunkSize;
+
+    public ItemSuggestIndex(ItemRepository itemRepository,
+                            @Value("${shareit.item.suggest.load-chunk-size:10000}") int loadChunkSize) {
+        this.itemRepository = itemRepository;
+        this.loadChunkSize = loadChunkSize;
+    }
+
+    // Индекс строится до старта веб-сервера, чтобы первые изменения вещей не разошлись с загрузкой
+    @Override
+    public void afterSingletonsInstantiated() {
+        long lastId = 0;
+        List<ItemView> items;
+        while (!(items = itemRepository.findAvailableAfter(lastId, PageRequest.of(0, loadChunkSize))).isEmpty()) {
+            items.forEach(item -> add(item.name()));
+            lastId = items.getLast().id();
+        }
+        log.info("Индекс подсказок построен: {} названий", names.size());
+    }
+
+    public void add(String name) {
+        names.merge(ItemSearchCache.normalize(name), new Suggestion(name.strip(), 1),
+                (current, added) -> new Suggestion(current.name(), current.items() + 1));
+    }
+
+    public void remove(String name) {
+        names.computeIfPresent(ItemSearchCache.normalize(name),
+                (key, current) -> current.items() > 1 ? new Suggestion(current.name(), current.items() - 1) : null);
+    }
+
+    // Первые limit названий по алфавиту, начинающихся с prefix
+    public List<String> suggest(String prefix, int limit) {
+        String from = ItemSearchCache.normalize(prefix);
+        if (from.isEmpty()) {
+            return List.of();
+        }
+
+        ConcurrentNavigableMap<String, Suggestion> range = names.subMap(from, true, from + MAX_CHAR, false);
+        List<String> result = new ArrayList<>(limit);
+        for (Map.Entry<String, Suggestion> entry : range.entrySet()) {
+            if (result.size() == limit) {
+                break;
+            }
+            result.add(entry.getValue().name());
+        }
+        return result;
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    private record Suggestion(String name, int items) {
+    }
+}
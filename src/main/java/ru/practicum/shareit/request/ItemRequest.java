@@ -1,15 +0,0 @@
-package ru.practicum.shareit.request;
-
-import lombok.Builder;
-import lombok.Data;
-
-import java.time.LocalDateTime;
-
-@Data
-@Builder
-public class ItemRequest {
-    private Long id;
-    private String description;
-    private Long author;
-    private LocalDateTime createdTime;
-}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.request.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.service.ItemRequestService;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/requests")
+public class ItemRequestController {
+    private final ItemRequestService itemRequestService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public ItemRequestDto create(@RequestBody @Valid ItemRequestDto request,
+                                 @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemRequestService.createRequest(request, userId);
+    }
+
+    @GetMapping
+    public List<ItemRequestDto> findAllOwn(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemRequestService.getUserRequests(userId);
+    }
+
+    @GetMapping("/all")
+    public List<ItemRequestDto> findAllOthers(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @RequestParam(required = false) Long after,
+                                              @RequestParam(required = false, defaultValue = "10") Integer size) {
+        return itemRequestService.getOtherUsersRequests(userId, after, size);
+    }
+
+    @GetMapping("/{requestId}")
+    public ItemRequestDto findById(@PathVariable Long requestId,
+                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        return itemRequestService.getRequestDto(requestId, userId);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+// Вещь, которую предложили в ответ на запрос
+@Data
+@Builder
+public class ItemOfferDto {
+    private Long id;
+    private String name;
+    private Long ownerId;
+}
@@ -0,0 +1,4 @@
+package ru.practicum.shareit.request.model;
+
+public record ItemOfferView(Long id, String name, Long ownerId, Long requestId) {
+}
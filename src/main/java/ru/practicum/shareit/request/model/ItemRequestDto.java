@@ -0,0 +1,18 @@
+package ru.practicum.shareit.request.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class ItemRequestDto {
+    private Long id;
+    @NotBlank(message = "Описание запроса не может быть пустым")
+    private String description;
+    private LocalDateTime created;
+    private List<ItemOfferDto> items;
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.request.model;
+
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ItemRequestMapper {
+    public static ItemRequestDto toItemRequestDto(ItemRequest request, List<ItemOfferDto> items) {
+        return ItemRequestDto.builder()
+                .id(request.getId())
+                .description(request.getDescription())
+                .created(request.getCreated())
+                .items(items)
+                .build();
+    }
+
+    public static ItemOfferDto toItemOfferDto(ItemOfferView item) {
+        return ItemOfferDto.builder()
+                .id(item.id())
+                .name(item.name())
+                .ownerId(item.ownerId())
+                .build();
+    }
+
+    public static ItemRequest toItemRequest(ItemRequestDto requestDto, User requester) {
+        return ItemRequest.builder()
+                .description(requestDto.getDescription())
+                .requester(requester)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.request.model.ItemRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDescIdDesc(Long requesterId);
+
+    // Лента идёт по индексу (created, id) от новых к старым, без OFFSET
+    @Query("select request from ItemRequest request where request.requester.id <> ?1 " +
+            "order by request.created desc, request.id desc")
+    List<ItemRequest> findFeedFirstPage(Long userId, Pageable pageable);
+
+    // Следующая страница начинается строго после последнего показанного запроса (created, id)
+    @Query("select request from ItemRequest request where request.requester.id <> ?1 " +
+            "and (request.created < ?2 or (request.created = ?2 and request.id < ?3)) " +
+            "order by request.created desc, request.id desc")
+    List<ItemRequest> findFeedPageAfter(Long userId, LocalDateTime created, Long id, Pageable pageable);
+}
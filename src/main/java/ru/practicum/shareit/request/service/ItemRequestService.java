@@ -0,0 +1,86 @@
+package ru.practicum.shareit.request.service;
+
+import jakarta.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemOfferDto;
+import ru.practicum.shareit.request.model.ItemOfferView;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequestMapper;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class ItemRequestService {
+    private final UserService userService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+
+    @Transactional
+    public ItemRequestDto createRequest(ItemRequestDto requestDto, Long userId) {
+        User requester = userService.getUserReference(userId);
+        ItemRequest request = itemRequestRepository.saveAndFlush(ItemRequestMapper.toItemRequest(requestDto, requester));
+        return ItemRequestMapper.toItemRequestDto(request, List.of());
+    }
+
+    public List<ItemRequestDto> getUserRequests(Long userId) {
+        userService.getUser(userId);
+        return toItemRequestDtos(itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(userId));
+    }
+
+    // after - id последнего запроса с предыдущей страницы
+    public List<ItemRequestDto> getOtherUsersRequests(Long userId, Long after, Integer size) {
+        userService.getUser(userId);
+        if (size == null || size <= 0) {
+            throw new ValidationException(ExceptionMessages.PAGINATION_PARAMS_ERROR);
+        }
+
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return toItemRequestDtos(itemRequestRepository.findFeedFirstPage(userId, page));
+        }
+        ItemRequest last = getRequest(after);
+        return toItemRequestDtos(itemRequestRepository.findFeedPageAfter(userId, last.getCreated(), last.getId(), page));
+    }
+
+    public ItemRequestDto getRequestDto(Long id, Long userId) {
+        userService.getUser(userId);
+        return toItemRequestDtos(List.of(getRequest(id))).getFirst();
+    }
+
+    public ItemRequest getRequest(Long id) {
+        return itemRequestRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.REQUEST_NOT_FOUND_ERROR, id)));
+    }
+
+    // Предложенные вещи для всей страницы одним запросом с IN, а не по запросу на каждую заявку
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).toList();
+        Map<Long, List<ItemOfferDto>> offers = itemRepository.findOffersByRequestIds(requestIds).stream()
+                .collect(Collectors.groupingBy(ItemOfferView::requestId,
+                        Collectors.mapping(ItemRequestMapper::toItemOfferDto, Collectors.toList())));
+
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        offers.getOrDefault(request.getId(), List.of())))
+                .toList();
+    }
+}
@@ -12,6 +12,14 @@ public class UserMapper {
                 .build();
     }
 
+    public static UserDto toUserDto(UserSnapshot user) {
+        return UserDto.builder()
+                .id(user.id())
+                .name(user.name())
+                .email(user.email())
+                .build();
+    }
+
     public User toUser(UserDto userDto) {
         return User.builder()
                 .id(userDto.getId())
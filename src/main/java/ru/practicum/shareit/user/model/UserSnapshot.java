@@ -0,0 +1,8 @@
+package ru.practicum.shareit.user.model;
+
+// Неизменяемая копия пользователя для кэша: сущность с @Version нельзя делить между потоками и транзакциями
+public record UserSnapshot(Long id, String name, String email) {
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getName(), user.getEmail());
+    }
+}
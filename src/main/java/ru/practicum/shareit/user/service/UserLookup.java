@@ -0,0 +1,37 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.extention.ConditionsNotMetException;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.user.model.UserSnapshot;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.AfterCommit;
+
+// Кэшированный поиск пользователя вынесен в отдельный бин: вызов из самого UserService прошёл бы мимо прокси
+@Component
+@RequiredArgsConstructor
+public class UserLookup {
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#userId", condition = "#userId != null")
+    public UserSnapshot getUser(Long userId) {
+        if (userId == null) {
+            throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_USER);
+        }
+
+        return userRepository.findById(userId)
+                .map(UserSnapshot::of)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.USER_NOT_FOUND_ERROR, userId)));
+    }
+
+    // После коммита: иначе параллельный запрос успеет вернуть в кэш ещё не изменённую строку
+    public void evict(Long userId) {
+        AfterCommit.run(() -> cacheManager.getCache(CacheConfig.USERS).evict(userId));
+    }
+}
@@ -2,67 +2,103 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookingCounters;
 import ru.practicum.shareit.extention.ConditionsNotMetException;
 import ru.practicum.shareit.extention.DuplicatedDataException;
 import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.item.service.ItemAvailabilityService;
+import ru.practicum.shareit.item.service.ItemLookup;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSuggestIndex;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.model.UserMapper;
+import ru.practicum.shareit.user.model.UserSnapshot;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.util.AfterCommit;
 
+import java.util.List;
 import java.util.Objects;
 
 @Service
+@Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserLookup userLookup;
+    private final ItemLookup itemLookup;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemRepository itemRepository;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final BookingCounters bookingCounters;
+    private final ItemAvailabilityService itemAvailabilityService;
 
     public UserDto getItemDto(Long id) {
-        return userMapper.toUserDto(getUser(id));
+        return UserMapper.toUserDto(getUser(id));
     }
 
+    @Transactional
     public UserDto createUser(UserDto userDto) {
         User user = userMapper.toUser(userDto);
-        validateUser(user);
+        validateEmail(user.getId(), user.getEmail());
         return userMapper.toUserDto(userRepository.saveAndFlush(user));
     }
 
+    @Transactional
     public UserDto updateUser(Long id, UserDto userDto) {
-        User user = getUser(id);
-        if (userDto.getName() != null) {
-            user.setName(userDto.getName());
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.USER_NOT_FOUND_ERROR, id)));
+        // Проверяем email до изменения сущности, иначе автофлаш перед запросом упрётся в уникальный индекс
         if (userDto.getEmail() != null) {
+            validateEmail(id, userDto.getEmail());
             user.setEmail(userDto.getEmail());
         }
+        if (userDto.getName() != null) {
+            user.setName(userDto.getName());
+        }
 
-        validateUser(user);
-        return userMapper.toUserDto(userRepository.saveAndFlush(user));
+        UserDto updated = userMapper.toUserDto(userRepository.saveAndFlush(user));
+        userLookup.evict(id);
+        return updated;
     }
 
+    // Вещи пользователя удаляются каскадом в БД, поэтому кэш вещей сбрасываем целиком,
+    // поиск переходит на новое поколение, а названия доступных вещей уходят из подсказок после коммита.
+    // Других вещей каскад не задевает: предложенные на запросы пользователя только отвязываются (fk_items_request),
+    // а счётчики вещей, которые он бронировал, уменьшаются до удаления его броней
+    @Transactional
     public void deleteUser(Long id) {
         getUser(id);
+        List<String> itemNames = itemRepository.findAvailableNamesByOwnerId(id);
+        List<Long> bookedItemIds = bookingCounters.removedBooker(id);
         userRepository.deleteById(id);
+        itemAvailabilityService.invalidate(bookedItemIds);
+        userLookup.evict(id);
+        itemLookup.evictAll();
+        itemSearchCache.invalidate();
+        AfterCommit.run(() -> itemNames.forEach(itemSuggestIndex::remove));
     }
 
-    private void validateUser(User user) throws DuplicatedDataException {
-        if (userRepository.findAllByEmail(user.getEmail())
+    private void validateEmail(Long userId, String email) throws DuplicatedDataException {
+        if (userRepository.findAllByEmail(email)
                 .stream()
                 .anyMatch(u ->
-                        !Objects.equals(u.getId(), user.getId()))) {
+                        !Objects.equals(u.getId(), userId))) {
             throw new DuplicatedDataException("Этот email уже используется");
         }
     }
 
-    public User getUser(Long userId) throws ConditionsNotMetException {
-        if (userId == null) {
-            throw new ConditionsNotMetException(ExceptionMessages.NOT_FOUND_ITEM);
-        }
-
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException(String.format(ExceptionMessages.USER_NOT_FOUND_ERROR, userId)));
+    public UserSnapshot getUser(Long userId) throws ConditionsNotMetException {
+        return userLookup.getUser(userId);
     }
 
+    // Ссылка для связей новых сущностей: существование проверяется по кэшу, строка пользователя не читается
+    public User getUserReference(Long userId) {
+        getUser(userId);
+        return userRepository.getReferenceById(userId);
+    }
 }
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Аренда на строку таблицы scheduler_lease: задачу с одним именем в каждый момент выполняет один узел.
+// Узел, упавший не освободив аренду, перестаёт её держать по истечении duration
+@Slf4j
+@Component
+public class DbLease {
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId;
+
+    public DbLease(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nodeId = hostName() + "-" + UUID.randomUUID();
+    }
+
+    public boolean tryAcquire(String name, Duration duration) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp until = Timestamp.valueOf(now.plus(duration));
+        int updated = jdbcTemplate.update("UPDATE scheduler_lease SET owner = ?, locked_until = ? " +
+                "WHERE name = ? AND (locked_until < ? OR owner = ?)", nodeId, until, name, Timestamp.valueOf(now), nodeId);
+        if (updated > 0) {
+            return true;
+        }
+        try {
+            return jdbcTemplate.update("INSERT INTO scheduler_lease (name, owner, locked_until) " +
+                    "SELECT ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM scheduler_lease WHERE name = ?)",
+                    name, nodeId, until, name) > 0;
+        } catch (DataIntegrityViolationException e) {
+            // Строку одновременно вставил другой узел, аренда у него
+            return false;
+        }
+    }
+
+    // Продлевает аренду, которую узел ещё держит. false - аренда истекла и её забрал другой узел
+    public boolean renew(String name, Duration duration) {
+        return jdbcTemplate.update("UPDATE scheduler_lease SET locked_until = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now().plus(duration)), name, nodeId) > 0;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update("UPDATE scheduler_lease SET locked_until = ? WHERE name = ? AND owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), name, nodeId);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit.util;
+
+import jakarta.validation.ValidationException;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.extention.ExceptionMessages;
+
+public class Pagination {
+    private Pagination() {
+    }
+
+    // Без size отдаём всю выборку, как и раньше. from - смещение в строках, а не номер страницы
+    public static Pageable of(Integer from, Integer size) {
+        if (size == null) {
+            return Pageable.unpaged();
+        }
+        if (from == null || from < 0 || size <= 0) {
+            throw new ValidationException(ExceptionMessages.PAGINATION_PARAMS_ERROR);
+        }
+        return new OffsetPageRequest(from, size);
+    }
+
+    // С курсором after страница начинается сразу после него, смещение from вместе с ним не допускается
+    public static Pageable of(Integer from, Integer size, Long after) {
+        if (after != null && from != null && from > 0) {
+            throw new ValidationException(ExceptionMessages.PAGINATION_CURSOR_ERROR);
+        }
+        return of(from, size);
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket в форме GCRA: всё состояние - одно время "теоретического прихода" следующего запроса,
+// поэтому ведро обновляется одним compareAndSet без блокировок
+public final class TokenBucket {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.intervalNanos = (long) (NANOS_PER_SECOND / refillPerSecond);
+        this.burstNanos = intervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    // 0 - токен взят, иначе сколько наносекунд ждать до появления следующего
+    public long tryAcquire(long now) {
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
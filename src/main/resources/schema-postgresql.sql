@@ -0,0 +1,38 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_name_trgm ON items USING gin (upper(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_items_description_trgm ON items USING gin (upper(description) gin_trgm_ops);
+
+SELECT setval('bookings_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM bookings) + 1,
+                                       (SELECT last_value FROM bookings_seq)));
+
+-- В старых базах requests.created был DATE: запросы одного дня в ленте нельзя было упорядочить.
+-- Тип меняется только если колонка ещё DATE: ALTER берёт ACCESS EXCLUSIVE и переписывает таблицу.
+-- Тело в одинарных кавычках, а не в $$: скрипт делится на команды по ';' вне строковых литералов
+DO 'BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = ''requests''
+                 AND column_name = ''created'' AND data_type = ''date'') THEN
+        ALTER TABLE requests ALTER COLUMN created SET DATA TYPE TIMESTAMP;
+    END IF;
+END';
+
+-- В старых базах items.request_id удалялся каскадом вместе с запросом, а с ним вещи других пользователей,
+-- их брони и отзывы. Каскадный ключ снимается один раз, ключ fk_items_request добавляется, только если его ещё нет
+DO 'DECLARE
+    fk record;
+BEGIN
+    FOR fk IN SELECT conname FROM pg_constraint
+              WHERE conrelid = ''items''::regclass AND contype = ''f'' AND confdeltype = ''c''
+                AND conkey = ARRAY[(SELECT attnum FROM pg_attribute
+                                    WHERE attrelid = ''items''::regclass AND attname = ''request_id'')]
+    LOOP
+        EXECUTE ''ALTER TABLE items DROP CONSTRAINT '' || quote_ident(fk.conname);
+    END LOOP;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conrelid = ''items''::regclass AND conname = ''fk_items_request'') THEN
+        ALTER TABLE items ADD CONSTRAINT fk_items_request
+            FOREIGN KEY (request_id) REFERENCES requests (id) ON DELETE SET NULL;
+    END IF;
+END';
@@ -12,10 +12,14 @@ CREATE TABLE IF NOT EXISTS requests
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     description  VARCHAR(255)                            NOT NULL,
     requester_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
-    created      DATE                                    NOT NULL,
+    created      TIMESTAMP                               NOT NULL,
     CONSTRAINT pk_request PRIMARY KEY (id)
     );
 
+CREATE INDEX IF NOT EXISTS idx_requests_requester ON requests (requester_id, created DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS items
 (
     id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -23,10 +27,14 @@ CREATE TABLE IF NOT EXISTS items
     description VARCHAR(255)                            NOT NULL,
     available   BOOLEAN                                 NOT NULL DEFAULT FALSE,
     owner_id    BIGINT REFERENCES users (id) ON DELETE CASCADE,
-    request_id  BIGINT REFERENCES requests (id) ON DELETE CASCADE,
+    request_id  BIGINT CONSTRAINT fk_items_request REFERENCES requests (id) ON DELETE SET NULL,
     CONSTRAINT pk_item PRIMARY KEY (id)
     );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -38,6 +46,28 @@ CREATE TABLE IF NOT EXISTS bookings
     CONSTRAINT pk_booking PRIMARY KEY (id)
     );
 
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_dates ON bookings (item_id, start_date, end_date);
+
+-- Ещё не закончившиеся брони вещи для календаря свободных окон
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+
+-- id в конце индексов списков броней: по нему упорядочены брони с одинаковым началом и идёт курсор (start, id)
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC, id DESC);
+
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_status ON bookings (status);
+
+-- Владелец вещи дублируется в брони, чтобы выборки владельца не соединялись с items
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS owner_id BIGINT REFERENCES users (id) ON DELETE CASCADE;
+
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_start ON bookings (owner_id, start_date DESC, id DESC);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -46,4 +76,60 @@ CREATE TABLE IF NOT EXISTS comments
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE,
     created   TIMESTAMP                               NOT NULL,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-    );
\ No newline at end of file
+    );
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
+
+-- Версии для оптимистичной блокировки и ETag
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE comments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS created TIMESTAMP;
+
+-- Счётчики бронирований вещи по статусам для сводки владельца, см. BookingCounters
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_waiting BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_approved BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_rejected BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_cancelled BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS bookings_expired BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS booked_seconds BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_owner_end ON bookings (owner_id, end_date);
+
+CREATE TABLE IF NOT EXISTS booking_outbox
+(
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    booking_id    BIGINT                                  NOT NULL,
+    item_id       BIGINT                                  NOT NULL,
+    owner_id      BIGINT                                  NOT NULL,
+    booker_id     BIGINT                                  NOT NULL,
+    booking_event VARCHAR(30)                             NOT NULL,
+    source_status VARCHAR(30)                             NOT NULL,
+    target_status VARCHAR(30)                             NOT NULL,
+    created       TIMESTAMP                               NOT NULL,
+    status        VARCHAR(30)                             NOT NULL,
+    attempts      INT                                     NOT NULL DEFAULT 0,
+    next_attempt  TIMESTAMP                               NOT NULL,
+    last_error    VARCHAR(255),
+    CONSTRAINT pk_booking_outbox PRIMARY KEY (id)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_status_next ON booking_outbox (status, next_attempt);
+
+CREATE TABLE IF NOT EXISTS scheduler_lease
+(
+    name         VARCHAR(100) NOT NULL,
+    owner        VARCHAR(255) NOT NULL,
+    locked_until TIMESTAMP    NOT NULL,
+    CONSTRAINT pk_scheduler_lease PRIMARY KEY (name)
+    );
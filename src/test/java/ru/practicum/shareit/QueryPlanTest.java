@@ -0,0 +1,205 @@
+package ru.practicum.shareit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.outbox.BookingOutboxRepository;
+import ru.practicum.shareit.booking.outbox.BookingOutboxStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Прогоняет EXPLAIN по SQL, который Hibernate генерирует для запросов репозиториев,
+// и падает, если какой-то из них читает таблицу полным сканированием
+@SpringBootTest(classes = ShareItApp.class, properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=ru.practicum.shareit.QueryPlanTest$SqlRecorder")
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class QueryPlanTest {
+    private static final int USERS = 20;
+    private static final int ITEMS = 50;
+    private static final int BOOKINGS = 500;
+    private static final int REQUESTS = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingOutboxRepository bookingOutboxRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void repositoryQueriesDoNotUseTableScan() {
+        seed();
+        SqlRecorder.STATEMENTS.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        Pageable page = PageRequest.of(0, 10);
+        List<BookingStatusType> active = List.of(BookingStatusType.WAITING, BookingStatusType.APPROVED);
+        List<Long> itemIds = List.of(1L, 2L, 3L);
+
+        bookingRepository.findById(1L);
+        bookingRepository.findAllByBookerIdOrderByStartAsc(1L, page);
+        bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(1L, BookingStatusType.WAITING, page);
+        bookingRepository.findAllByBookerIdAndEndBeforeOrderByStartDesc(1L, now, page);
+        bookingRepository.findAllByBookerIdAndStartBeforeAndEndAfterOrderByStartDesc(1L, now, now, page);
+        bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(1L, now, page);
+        bookingRepository.findAllByOwnerIdOrderByStartAsc(1L, page);
+        bookingRepository.findAllByOwnerIdAndStatusOrderByStartDesc(1L, BookingStatusType.WAITING, page);
+        bookingRepository.findAllByOwnerIdAndEndBeforeOrderByStartDesc(1L, now, page);
+        bookingRepository.findAllByOwnerIdAndStartBeforeAndEndAfterOrderByStartDesc(1L, now, now, page);
+        bookingRepository.findAllByOwnerIdAndStartAfterOrderByStartDesc(1L, now, page);
+        bookingRepository.findStartByIdAndBookerId(1L, 1L);
+        bookingRepository.findStartByIdAndOwnerId(1L, 1L);
+        bookingRepository.findAllByBookerIdAfter(1L, now, 10L, page);
+        bookingRepository.findAllByBookerIdAndStatusAfter(1L, BookingStatusType.WAITING, now, 10L, page);
+        bookingRepository.findAllByBookerIdAndEndBeforeAfter(1L, now, now, 10L, page);
+        bookingRepository.findAllByBookerIdAndCurrentAfter(1L, now, now, 10L, page);
+        bookingRepository.findAllByBookerIdAndStartAfterAfter(1L, now, now, 10L, page);
+        bookingRepository.findAllByOwnerIdAfter(1L, now, 10L, page);
+        bookingRepository.findAllByOwnerIdAndStatusAfter(1L, BookingStatusType.WAITING, now, 10L, page);
+        bookingRepository.findAllByOwnerIdAndEndBeforeAfter(1L, now, now, 10L, page);
+        bookingRepository.findAllByOwnerIdAndCurrentAfter(1L, now, now, 10L, page);
+        bookingRepository.findAllByOwnerIdAndStartAfterAfter(1L, now, now, 10L, page);
+        bookingRepository.existsByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(1L, active, now, now.plusDays(1));
+        bookingRepository.findAllByItemIdAndStatusInAndEndIsAfterAndStartIsBefore(1L, active, now, now.plusDays(1));
+        bookingRepository.existsByItemIdAndBookerIdAndEndBefore(1L, 1L, now);
+        bookingRepository.findLastBookingsByItemIds(itemIds, BookingStatusType.APPROVED, now);
+        bookingRepository.findNextBookingsByItemIds(itemIds, BookingStatusType.APPROVED, now);
+        bookingRepository.findBusyIntervals(itemIds, active, now);
+        bookingRepository.countByOwnerIdAndEndGreaterThanEqual(1L, now);
+        bookingRepository.countByOwnerIdAndStartAfter(1L, now);
+        bookingRepository.findVersionById(1L);
+        bookingRepository.findStaleWaitingIds(now, now.minusDays(7), 10);
+        bookingRepository.findIdsWithoutOwner(0L, 10);
+        transactionTemplate.executeWithoutResult(status -> bookingOutboxRepository.findBatchForDispatch(
+                BookingOutboxStatus.PENDING, now, page));
+
+        itemRepository.findById(1L);
+        itemRepository.findAllByOwnerId(1L);
+        itemRepository.findAllViewsByIds(itemIds);
+        transactionTemplate.executeWithoutResult(status -> itemRepository.findByIdForUpdate(1L));
+
+        commentRepository.findAllByItemId(1L);
+        commentRepository.findAllByItemIdIn(itemIds);
+
+        itemRepository.findOffersByRequestIds(itemIds);
+        itemRepository.findAvailableAfter(10L, page);
+        itemRepository.findAvailableNamesByOwnerId(1L);
+
+        itemRequestRepository.findById(1L);
+        itemRequestRepository.findAllByRequesterIdOrderByCreatedDescIdDesc(1L);
+        itemRequestRepository.findFeedFirstPage(1L, page);
+        itemRequestRepository.findFeedPageAfter(1L, now, 10L, page);
+
+        userRepository.findById(1L);
+        userRepository.findAllByEmail("user1@mail.ru");
+
+        // findAllBySearch не проверяем: '%x%' в H2 индексом не обслуживается,
+        // в PostgreSQL для него есть триграммные индексы из schema-postgresql.sql
+        assertFalse(SqlRecorder.STATEMENTS.isEmpty());
+        List<String> scans = new ArrayList<>();
+        for (String sql : SqlRecorder.STATEMENTS) {
+            String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+            if (plan != null && plan.contains("tableScan")) {
+                scans.add(plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), "Запросы без индекса:\n" + String.join("\n\n", scans));
+    }
+
+    private void seed() {
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "User" + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> requests = new ArrayList<>();
+        for (long id = 1; id <= REQUESTS; id++) {
+            requests.add(new Object[]{id, "Request" + id, id % USERS + 1, Timestamp.valueOf(LocalDateTime.now().minusHours(id))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO requests (id, description, requester_id, created) VALUES (?, ?, ?, ?)", requests);
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "Item" + id, "Description" + id, true, id % USERS + 1, id % 3 == 0 ? id : null});
+            comments.add(new Object[]{id, "Comment" + id, id, (id + 1) % USERS + 1, Timestamp.valueOf(LocalDateTime.now())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, available, owner_id, request_id) VALUES (?, ?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, text, item_id, author_id, created) VALUES (?, ?, ?, ?, ?)", comments);
+
+        String[] statuses = {"WAITING", "APPROVED", "REJECTED", "CANCELLED"};
+        LocalDateTime base = LocalDateTime.now().minusDays(BOOKINGS / 2);
+        List<Object[]> bookings = new ArrayList<>();
+        for (long id = 1; id <= BOOKINGS; id++) {
+            LocalDateTime start = base.plusDays(id);
+            long itemId = id % ITEMS + 1;
+            bookings.add(new Object[]{id, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)),
+                    itemId, id % USERS + 1, itemId % USERS + 1, statuses[(int) (id % statuses.length)]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, owner_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", bookings);
+
+        List<Object[]> events = new ArrayList<>();
+        for (long id = 1; id <= BOOKINGS; id++) {
+            Timestamp created = Timestamp.valueOf(base.plusMinutes(id));
+            events.add(new Object[]{id, id % ITEMS + 1, (id % ITEMS + 1) % USERS + 1, id % USERS + 1,
+                    id % 10 == 0 ? "FAILED" : "PENDING", created, created});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking_outbox (booking_id, item_id, owner_id, booker_id, booking_event, " +
+                "source_status, target_status, status, created, next_attempt) " +
+                "VALUES (?, ?, ?, ?, 'APPROVE', 'WAITING', 'APPROVED', ?, ?, ?)", events);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+        static final Set<String> STATEMENTS = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.stripLeading().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
@@ -1,22 +1,63 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.ShareItApp;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.model.BookingBatchResultDto;
 import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatusType;
+import ru.practicum.shareit.booking.model.BookingSummaryDto;
+import ru.practicum.shareit.booking.model.ItemUtilizationDto;
+import ru.practicum.shareit.booking.outbox.BookingEventMessage;
+import ru.practicum.shareit.booking.outbox.BookingOutboxDispatcher;
+import ru.practicum.shareit.booking.outbox.BookingOutboxEvent;
+import ru.practicum.shareit.booking.outbox.BookingOutboxRepository;
+import ru.practicum.shareit.booking.outbox.InMemoryBookingEventSink;
+import ru.practicum.shareit.booking.service.BookingCounterReconciler;
+import ru.practicum.shareit.booking.service.BookingExpiryJob;
+import ru.practicum.shareit.booking.service.BookingOwnerBackfill;
+import ru.practicum.shareit.extention.ConditionsNotMetException;
+import ru.practicum.shareit.extention.ExceptionMessages;
+import ru.practicum.shareit.extention.NotFoundException;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.util.DbLease;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -40,6 +81,36 @@ class BookingControllerTest {
     @Autowired
     private BookingController bookingController;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingOwnerBackfill bookingOwnerBackfill;
+
+    @Autowired
+    private BookingOutboxRepository bookingOutboxRepository;
+
+    @Autowired
+    private BookingOutboxDispatcher bookingOutboxDispatcher;
+
+    @Autowired
+    private InMemoryBookingEventSink bookingEventSink;
+
+    @Autowired
+    private BookingExpiryJob bookingExpiryJob;
+
+    @Autowired
+    private DbLease dbLease;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingCounterReconciler bookingCounterReconciler;
+
     @Test
     void bookingControllerCreatesBooking() {
         UserDto userDto = getUserDto(userCount);
@@ -76,6 +147,400 @@ class BookingControllerTest {
         assertEquals(BookingStatusType.APPROVED, updatedBooking.getStatus());
     }
 
+    @Test
+    void bookingControllerDoesNotChangeFinalStatus() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+        BookingDto createdBooking = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+
+        Long bookingId = createdBooking.getId();
+        Long ownerId = userDto.getId();
+        assertEquals(BookingStatusType.REJECTED, bookingController.updateStatus(bookingId, ownerId, false).getStatus());
+        assertThrows(ValidationException.class, () -> bookingController.updateStatus(bookingId, ownerId, true));
+    }
+
+    @Test
+    void bookingControllerRejectsOverlappingBooking() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+
+        BookingDto first = getBookingDto(itemDto.getId(), bookerDto.getId());
+        bookingController.create(first, bookerDto.getId());
+
+        BookingDto later = getBookingDto(itemDto.getId(), bookerDto.getId());
+        later.setStart(first.getEnd().plusHours(1));
+        later.setEnd(first.getEnd().plusDays(1));
+        assertNotNull(bookingController.create(later, bookerDto.getId()).getId());
+
+        BookingDto overlapping = getBookingDto(itemDto.getId(), bookerDto.getId());
+        overlapping.setStart(first.getStart().minusHours(1));
+        overlapping.setEnd(first.getStart().plusHours(1));
+        Long bookerId = bookerDto.getId();
+        assertThrows(ConditionsNotMetException.class, () -> bookingController.create(overlapping, bookerId));
+    }
+
+    @Test
+    void bookingControllerPagesBookerBookings() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+
+        for (int i = 0; i < 3; i++) {
+            ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+            bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        }
+
+        assertEquals(3, bookingController.findAllByBookerAndState(BookingState.ALL, bookerDto.getId(), 0, null, null).size());
+        assertEquals(2, bookingController.findAllByBookerAndState(BookingState.ALL, bookerDto.getId(), 0, 2, null).size());
+        assertEquals(1, bookingController.findAllByBookerAndState(BookingState.ALL, bookerDto.getId(), 2, 2, null).size());
+        assertEquals(3, bookingController.findAllByOwnerAndState(BookingState.WAITING, userDto.getId(), 0, 10, null).size());
+    }
+
+    @Test
+    void bookingControllerPagesByUnalignedOffsetAndCursor() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        // Одинаковое начало у всех броней: порядок внутри страницы и курсор держатся на id
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+            BookingDto bookingDto = getBookingDto(itemDto.getId(), bookerDto.getId());
+            bookingDto.setStart(start);
+            ids.add(bookingController.create(bookingDto, bookerDto.getId()).getId());
+        }
+        Long bookerId = bookerDto.getId();
+        Long ownerId = userDto.getId();
+
+        assertEquals(ids.subList(1, 3), bookingIds(bookingController.findAllByBookerAndState(BookingState.ALL, bookerId, 1, 2, null)));
+        assertEquals(ids.subList(3, 5), bookingIds(bookingController.findAllByBookerAndState(BookingState.ALL, bookerId, 3, 2, null)));
+
+        assertEquals(ids.subList(2, 4), bookingIds(bookingController.findAllByBookerAndState(BookingState.ALL, bookerId, 0, 2, ids.get(1))));
+        assertEquals(List.of(ids.get(4)), bookingIds(bookingController.findAllByOwnerAndState(BookingState.ALL, ownerId, 0, 2, ids.get(3))));
+        assertEquals(List.of(ids.get(2), ids.get(1)),
+                bookingIds(bookingController.findAllByOwnerAndState(BookingState.WAITING, ownerId, 0, 2, ids.get(3))));
+        assertThrows(NotFoundException.class,
+                () -> bookingController.findAllByBookerAndState(BookingState.ALL, bookerId, 0, 2, 9999L));
+        assertThrows(ValidationException.class,
+                () -> bookingController.findAllByBookerAndState(BookingState.ALL, bookerId, 1, 2, ids.get(1)));
+
+        // Курсором может быть только своя бронь: чужая не отличается от несуществующей
+        UserDto strangerDto = userController.create(getUserDto(userCount));
+        assertThrows(NotFoundException.class,
+                () -> bookingController.findAllByBookerAndState(BookingState.ALL, strangerDto.getId(), 0, 2, ids.get(1)));
+        assertThrows(NotFoundException.class,
+                () -> bookingController.findAllByOwnerAndState(BookingState.ALL, bookerId, 0, 2, ids.get(1)));
+    }
+
+    @Test
+    void bookingControllerCreatesBatchWithPerEntryErrors() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+        ItemDto otherItemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+
+        BookingDto valid = getBookingDto(itemDto.getId(), bookerDto.getId());
+        BookingDto overlapping = getBookingDto(itemDto.getId(), bookerDto.getId());
+        BookingDto endBeforeStart = getBookingDto(otherItemDto.getId(), bookerDto.getId());
+        endBeforeStart.setEnd(endBeforeStart.getStart().minusHours(1));
+        BookingDto otherItem = getBookingDto(otherItemDto.getId(), bookerDto.getId());
+        BookingDto missingItem = getBookingDto(9999L, bookerDto.getId());
+
+        BookingDto missingDates = getBookingDto(otherItemDto.getId(), bookerDto.getId());
+        missingDates.setStart(null);
+
+        List<BookingBatchResultDto> results = bookingController.createBatch(
+                Arrays.asList(valid, overlapping, endBeforeStart, otherItem, missingItem, missingDates, null), bookerDto.getId());
+
+        assertEquals(7, results.size());
+        assertNotNull(results.get(0).getBooking().getId());
+        assertEquals(ExceptionMessages.BOOKING_ITEM_IS_BOOKED, results.get(1).getError());
+        assertEquals(ExceptionMessages.BOOKING_END_BEFORE_START, results.get(2).getError());
+        assertNotNull(results.get(3).getBooking().getId());
+        assertNotNull(results.get(4).getError());
+        assertEquals(ExceptionMessages.BOOKING_DATES_REQUIRED, results.get(5).getError());
+        assertEquals(ExceptionMessages.BOOKING_BATCH_EMPTY_ENTRY, results.get(6).getError());
+        assertEquals(2, bookingController.findAllByBookerAndState(BookingState.ALL, bookerDto.getId(), 0, null, null).size());
+
+        List<BookingDto> tooLarge = Collections.nCopies(101, getBookingDto(otherItemDto.getId(), bookerDto.getId()));
+        assertThrows(ValidationException.class, () -> bookingController.createBatch(tooLarge, bookerDto.getId()));
+    }
+
+    @Test
+    void bookingControllerCreatesSingleBookingUnderConcurrentRequests() throws Exception {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+        List<UserDto> bookers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            bookers.add(userController.create(getUserDto(userCount)));
+        }
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CountDownLatch ready = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(bookers.size());
+        List<Future<?>> futures = new ArrayList<>();
+        for (UserDto booker : bookers) {
+            BookingDto bookingDto = BookingDto.builder()
+                    .itemId(itemDto.getId())
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .build();
+            futures.add(executor.submit(() -> {
+                ready.await();
+                try {
+                    bookingController.create(bookingDto, booker.getId());
+                    created.incrementAndGet();
+                } catch (ConditionsNotMetException e) {
+                    // вещь уже забронирована другим потоком
+                }
+                return null;
+            }));
+        }
+        ready.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, created.get(), "На одно время вещь может быть забронирована только один раз");
+        assertEquals(1, bookingController.findAllByOwnerAndState(BookingState.ALL, userDto.getId(), 0, null, null).size());
+    }
+
+    @Test
+    void bookingListingsFetchGraphInSingleStatement() {
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        for (int i = 0; i < 3; i++) {
+            UserDto ownerDto = userController.create(getUserDto(userCount));
+            ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+            bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(3, bookingController.findAllByBookerAndState(BookingState.ALL, bookerDto.getId(), 0, null, null).size());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Список бронирований должен загружаться одним запросом");
+        assertEquals(0, statistics.getEntityLoadCount(), "Список собирается из проекции без загрузки сущностей");
+    }
+
+    @Test
+    void bookingOwnerBackfillFillsOwnerOfOldBookings() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        BookingDto laterBooking = getBookingDto(itemDto.getId(), bookerDto.getId());
+        laterBooking.setStart(LocalDateTime.now().plusDays(3));
+        laterBooking.setEnd(LocalDateTime.now().plusDays(4));
+        bookingController.create(laterBooking, bookerDto.getId());
+
+        jdbcTemplate.update("UPDATE bookings SET owner_id = NULL");
+        assertTrue(bookingController.findAllByOwnerAndState(BookingState.ALL, ownerDto.getId(), 0, null, null).isEmpty());
+
+        // Строка аренды уже есть после прохода при старте приложения
+        jdbcTemplate.update("UPDATE scheduler_lease SET owner = 'other', locked_until = ? WHERE name = 'booking-owner-backfill'",
+                LocalDateTime.now().plusMinutes(5));
+        assertEquals(0, bookingOwnerBackfill.run(), "Пока аренду держит другой узел, заполнение не выполняется");
+
+        jdbcTemplate.update("UPDATE scheduler_lease SET locked_until = ?", LocalDateTime.now().minusSeconds(1));
+        assertEquals(2, bookingOwnerBackfill.run());
+        assertEquals(2, bookingController.findAllByOwnerAndState(BookingState.ALL, ownerDto.getId(), 0, null, null).size());
+        assertEquals(0, bookingOwnerBackfill.run());
+    }
+
+    @Test
+    void bookingControllerAnswersNotModifiedUntilStatusChanges() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        BookingDto booking = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+
+        ServletWebRequest firstRequest = getWebRequest(null);
+        assertNotNull(bookingController.findById(booking.getId(), bookerDto.getId(), firstRequest));
+        String eTag = firstRequest.getResponse().getHeader(HttpHeaders.ETAG);
+
+        ServletWebRequest pollRequest = getWebRequest(eTag);
+        assertNull(bookingController.findById(booking.getId(), ownerDto.getId(), pollRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), pollRequest.getResponse().getStatus());
+
+        bookingController.updateStatus(booking.getId(), ownerDto.getId(), true);
+        ServletWebRequest changedRequest = getWebRequest(eTag);
+        assertEquals(BookingStatusType.APPROVED,
+                bookingController.findById(booking.getId(), bookerDto.getId(), changedRequest).getStatus());
+
+        UserDto strangerDto = userController.create(getUserDto(userCount));
+        assertThrows(ConditionsNotMetException.class,
+                () -> bookingController.findById(booking.getId(), strangerDto.getId(), getWebRequest(eTag)));
+    }
+
+    @Test
+    void bookingStatusChangesAreDeliveredThroughOutbox() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        BookingDto booking = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        bookingEventSink.clear();
+
+        bookingController.updateStatus(booking.getId(), ownerDto.getId(), true);
+        assertThrows(ValidationException.class, () -> bookingController.updateStatus(booking.getId(), ownerDto.getId(), false));
+        assertEquals(1, bookingOutboxRepository.count(), "Отклонённый переход не должен попадать в outbox");
+
+        bookingEventSink.failNext(1);
+        assertEquals(0, bookingOutboxDispatcher.drain());
+        BookingOutboxEvent retried = bookingOutboxRepository.findAll().getFirst();
+        assertEquals(1, retried.getAttempts());
+        assertTrue(retried.getNextAttempt().isAfter(LocalDateTime.now()));
+
+        jdbcTemplate.update("UPDATE booking_outbox SET next_attempt = ?", LocalDateTime.now());
+        assertEquals(1, bookingOutboxDispatcher.drain());
+        assertEquals(0, bookingOutboxRepository.count());
+
+        List<BookingEventMessage> messages = bookingEventSink.getMessages();
+        assertEquals(1, messages.size());
+        assertEquals(booking.getId(), messages.getFirst().getBookingId());
+        assertEquals(ownerDto.getId(), messages.getFirst().getOwnerId());
+        assertEquals(BookingStatusType.WAITING, messages.getFirst().getSourceStatus());
+        assertEquals(BookingStatusType.APPROVED, messages.getFirst().getTargetStatus());
+
+        // После ошибки неотправленный остаток пачки сразу возвращается в очередь, а не ждёт конца аренды
+        for (int i = 0; i < 2; i++) {
+            ItemDto otherItem = itemController.create(getItemDto(itemCount), ownerDto.getId());
+            BookingDto other = bookingController.create(getBookingDto(otherItem.getId(), bookerDto.getId()), bookerDto.getId());
+            bookingController.updateStatus(other.getId(), ownerDto.getId(), true);
+        }
+        bookingEventSink.failNext(1);
+        assertEquals(0, bookingOutboxDispatcher.drain());
+        List<BookingOutboxEvent> pending = bookingOutboxRepository.findAll(Sort.by("id"));
+        assertEquals(1, pending.get(0).getAttempts());
+        assertTrue(pending.get(0).getNextAttempt().isAfter(LocalDateTime.now()));
+        assertEquals(0, pending.get(1).getAttempts());
+        assertFalse(pending.get(1).getNextAttempt().isAfter(LocalDateTime.now()));
+        assertEquals(1, bookingOutboxDispatcher.drain());
+        assertEquals(0, bookingEventSink.getSentInTransaction(), "Доставка не должна идти внутри транзакции");
+    }
+
+    @Test
+    void bookingExpiryJobExpiresStaleWaitingBookings() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        BookingDto started = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        BookingDto fresh = getBookingDto(itemDto.getId(), bookerDto.getId());
+        fresh.setStart(LocalDateTime.now().plusDays(3));
+        fresh.setEnd(LocalDateTime.now().plusDays(4));
+        fresh = bookingController.create(fresh, bookerDto.getId());
+        jdbcTemplate.update("UPDATE bookings SET start_date = ? WHERE id = ?", LocalDateTime.now().minusHours(1), started.getId());
+
+        jdbcTemplate.update("INSERT INTO scheduler_lease (name, owner, locked_until) VALUES ('booking-expiry', 'other', ?)",
+                LocalDateTime.now().plusMinutes(5));
+        assertEquals(0, bookingExpiryJob.run(), "Пока аренду держит другой узел, задача не выполняется");
+
+        jdbcTemplate.update("UPDATE scheduler_lease SET locked_until = ?", LocalDateTime.now().minusSeconds(1));
+        assertEquals(1, bookingExpiryJob.run());
+        assertEquals(BookingStatusType.EXPIRED,
+                bookingController.findById(started.getId(), ownerDto.getId(), getWebRequest(null)).getStatus());
+        assertEquals(BookingStatusType.WAITING,
+                bookingController.findById(fresh.getId(), ownerDto.getId(), getWebRequest(null)).getStatus());
+        assertEquals(1, bookingController.findAllByOwnerAndState(BookingState.WAITING, ownerDto.getId(), 0, null, null).size());
+
+        BookingOutboxEvent event = bookingOutboxRepository.findAll().getFirst();
+        assertEquals(started.getId(), event.getBookingId());
+        assertEquals(BookingEvent.EXPIRE, event.getEvent());
+        assertEquals(BookingStatusType.EXPIRED, event.getTargetStatus());
+        assertEquals(0, bookingExpiryJob.run());
+
+        // Между порциями задача продлевает аренду, пока её не забрал другой узел
+        assertTrue(dbLease.tryAcquire("booking-expiry", Duration.ofMinutes(5)));
+        assertTrue(dbLease.renew("booking-expiry", Duration.ofMinutes(5)));
+        jdbcTemplate.update("UPDATE scheduler_lease SET owner = 'other' WHERE name = 'booking-expiry'");
+        assertFalse(dbLease.renew("booking-expiry", Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void bookingListingsAndTransitionsAreMeasured() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        BookingDto booking = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+
+        bookingController.updateStatus(booking.getId(), ownerDto.getId(), true);
+        bookingController.findAllByOwnerAndState(BookingState.FUTURE, ownerDto.getId(), 0, null, null);
+
+        assertEquals(1, meterRegistry.get("shareit.booking.transitions")
+                .tags("event", "APPROVE", "source", "WAITING", "target", "APPROVED").counter().count());
+        assertEquals(1, meterRegistry.get("shareit.bookings.listing")
+                .tags("role", "owner", "state", "FUTURE").timer().count());
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "BookingRepository", "method", "findAllByOwnerIdAndStartAfterOrderByStartDesc")
+                .timer().count() > 0);
+    }
+
+    @Test
+    void bookingOwnerSummaryMatchesListingsAndSurvivesReconciliation() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        ItemDto otherItemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+
+        BookingDto approved = bookingController.create(getBookingDto(itemDto.getId(), bookerDto.getId()), bookerDto.getId());
+        bookingController.updateStatus(approved.getId(), ownerDto.getId(), true);
+        BookingDto rejected = getBookingDto(itemDto.getId(), bookerDto.getId());
+        rejected.setStart(LocalDateTime.now().plusDays(3));
+        rejected.setEnd(LocalDateTime.now().plusDays(4));
+        rejected = bookingController.create(rejected, bookerDto.getId());
+        bookingController.updateStatus(rejected.getId(), ownerDto.getId(), false);
+
+        BookingDto current = getBookingDto(otherItemDto.getId(), bookerDto.getId());
+        BookingDto past = getBookingDto(otherItemDto.getId(), bookerDto.getId());
+        past.setStart(LocalDateTime.now().plusDays(3));
+        past.setEnd(LocalDateTime.now().plusDays(4));
+        List<BookingBatchResultDto> batch = bookingController.createBatch(List.of(current, past), bookerDto.getId());
+        jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ? WHERE id = ?",
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusDays(1), batch.get(0).getBooking().getId());
+        jdbcTemplate.update("UPDATE bookings SET start_date = ?, end_date = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(3), LocalDateTime.now().minusDays(2), batch.get(1).getBooking().getId());
+        assertEquals(2, bookingExpiryJob.run());
+
+        BookingSummaryDto summary = bookingController.getOwnerSummary(ownerDto.getId());
+        for (BookingState state : BookingState.values()) {
+            assertEquals(bookingController.findAllByOwnerAndState(state, ownerDto.getId(), 0, null, null).size(),
+                    summary.getStates().get(state), "Счётчик " + state + " расходится со списком");
+        }
+        assertEquals(4, summary.getStates().get(BookingState.ALL));
+        ItemUtilizationDto item = summary.getItems().getFirst();
+        assertEquals(itemDto.getId(), item.getItemId());
+        assertEquals(2, item.getBookings());
+        assertEquals(1, item.getApproved());
+        assertEquals(1, item.getRejected());
+        assertEquals(Duration.ofDays(1), item.getBookedTime());
+        assertEquals(0, summary.getItems().getLast().getWaiting());
+
+        jdbcTemplate.update("UPDATE items SET bookings_waiting = 42, bookings_approved = 0, booked_seconds = 0");
+        assertEquals(2, bookingCounterReconciler.run());
+        assertEquals(summary, bookingController.getOwnerSummary(ownerDto.getId()));
+
+        // Брони удалённого пользователя уходят каскадом вместе со своим вкладом в счётчики вещей
+        userController.delete(bookerDto.getId());
+        BookingSummaryDto afterDelete = bookingController.getOwnerSummary(ownerDto.getId());
+        for (BookingState state : BookingState.values()) {
+            assertEquals(0, afterDelete.getStates().get(state), "Счётчик " + state + " после удаления бронирующего");
+        }
+        for (ItemUtilizationDto utilization : afterDelete.getItems()) {
+            assertEquals(0, utilization.getBookings());
+            assertEquals(Duration.ZERO, utilization.getBookedTime());
+        }
+    }
+
+    private static ServletWebRequest getWebRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/bookings");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
     private UserDto getUserDto(int id) {
         userCount++;
         return UserDto.builder()
@@ -93,6 +558,10 @@ class BookingControllerTest {
                 .build();
     }
 
+    private static List<Long> bookingIds(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).toList();
+    }
+
     private BookingDto getBookingDto(Long itemId, Long bookerId) {
         return BookingDto.builder()
                 .itemId(itemId)
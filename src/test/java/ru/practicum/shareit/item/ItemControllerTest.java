@@ -1,26 +1,59 @@
 package ru.practicum.shareit.item;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.ServletWebRequest;
 import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.model.BookingDto;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.comment.model.CommentDto;
 import ru.practicum.shareit.extention.ConditionsNotMetException;
+import ru.practicum.shareit.extention.NotFoundException;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.model.ItemAvailabilityDto;
 import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.model.TimeIntervalDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemSuggestIndex;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.model.UserDto;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = ShareItApp.class)
 @AutoConfigureTestDatabase
+@AutoConfigureMockMvc
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
 class ItemControllerTest {
@@ -33,6 +66,24 @@ class ItemControllerTest {
     @Autowired
     private ItemController itemController;
 
+    @Autowired
+    private BookingController bookingController;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Test
     void itemControllerCreatesCorrectItem() {
         UserDto userDto = getUserDto(userCount);
@@ -52,7 +103,7 @@ class ItemControllerTest {
 
         ItemDto itemDto = getItemDto(itemCount);
         itemDto = itemController.create(itemDto, userDto.getId());
-        ItemDto foundItemDto = itemController.findById(itemDto.getId(), userDto.getId());
+        ItemDto foundItemDto = itemController.findById(itemDto.getId(), userDto.getId(), getWebRequest(null));
         assertEquals(itemDto.getId(), foundItemDto.getId());
     }
 
@@ -127,15 +178,260 @@ class ItemControllerTest {
         ItemDto itemDto4 = getItemDto(itemCount);
         itemController.create(itemDto4, userDto.getId());
 
-        assertEquals(2, itemController.search("SearchItem", userDto.getId()).size(), "Неверное количество найденных вещей");
+        assertEquals(2, itemController.search("SearchItem", userDto.getId(), 0, null).size(), "Неверное количество найденных вещей");
 
     }
 
+    @Test
+    void itemControllerRanksNameMatchesFirstAndPagesSearch() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+
+        ItemDto byDescription = getItemDto(itemCount);
+        byDescription.setDescription("Дрель с перфоратором");
+        itemController.create(byDescription, userDto.getId());
+
+        ItemDto byName = getItemDto(itemCount);
+        byName.setName("Дрель");
+        byName = itemController.create(byName, userDto.getId());
+
+        List<ItemDto> found = itemController.search("дрель", userDto.getId(), 0, 1);
+        assertEquals(1, found.size());
+        assertEquals(byName.getId(), found.getFirst().getId(), "Совпадение в названии должно быть первым");
+        assertEquals(2, itemController.search("дрель", userDto.getId(), 0, 10).size());
+    }
+
+    @Test
+    void itemControllerSuggestsAvailableItemNamesByPrefix() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        for (String name : List.of("Дрель", "дрель", "Дрезина", "Дробилка", "Молоток")) {
+            ItemDto itemDto = getItemDto(itemCount);
+            itemDto.setName(name);
+            itemController.create(itemDto, userDto.getId());
+        }
+        ItemDto hidden = getItemDto(itemCount);
+        hidden.setName("Дрейф");
+        hidden.setIsAvailable(false);
+        hidden = itemController.create(hidden, userDto.getId());
+
+        assertEquals(List.of("Дрезина", "Дрель"), itemController.suggest("ДРЕ", userDto.getId(), 10));
+        assertEquals(List.of("Дрезина"), itemController.suggest("дре", userDto.getId(), 1));
+        assertEquals(List.of(), itemController.suggest(" ", userDto.getId(), 10));
+
+        itemController.update(hidden.getId(), ItemDto.builder().isAvailable(true).build(), userDto.getId());
+        assertEquals(List.of("Дрезина", "Дрейф", "Дрель"), itemController.suggest("дре", userDto.getId(), 10));
+
+        itemController.update(hidden.getId(), ItemDto.builder().name("Рубанок").build(), userDto.getId());
+        assertEquals(List.of("Дрезина", "Дрель"), itemController.suggest("дре", userDto.getId(), 10));
+        assertEquals(List.of("Рубанок"), itemController.suggest("руб", userDto.getId(), 10));
+        assertThrows(ValidationException.class, () -> itemController.suggest("дре", userDto.getId(), 0));
+    }
+
+    @Test
+    void itemSuggestionsForgetItemsOfDeletedUser() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto otherDto = userController.create(getUserDto(userCount));
+        for (String name : List.of("Дрель", "Дрель", "Дрезина")) {
+            ItemDto itemDto = getItemDto(itemCount);
+            itemDto.setName(name);
+            itemController.create(itemDto, ownerDto.getId());
+        }
+        ItemDto otherItem = getItemDto(itemCount);
+        otherItem.setName("Дрель");
+        itemController.create(otherItem, otherDto.getId());
+        assertEquals(List.of("Дрезина", "Дрель"), itemController.suggest("дре", otherDto.getId(), 10));
+
+        // Вещи владельца удаляет каскад в БД, счётчик "Дрель" остаётся за вещью другого пользователя
+        userController.delete(ownerDto.getId());
+        assertEquals(List.of("Дрель"), itemController.suggest("дре", otherDto.getId(), 10));
+
+        userController.delete(otherDto.getId());
+        assertEquals(List.of(), itemController.suggest("дре", userController.create(getUserDto(userCount)).getId(), 10));
+    }
+
+    @Test
+    void itemSuggestIndexLoadsAvailableItemsInChunks() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        for (String name : List.of("Пила", "Пилка", "Пинцет", "Плоскогубцы", "Паяльник")) {
+            ItemDto itemDto = getItemDto(itemCount);
+            itemDto.setName(name);
+            itemDto.setIsAvailable(!name.equals("Пинцет"));
+            itemController.create(itemDto, userDto.getId());
+        }
+
+        ItemSuggestIndex index = new ItemSuggestIndex(itemRepository, 2);
+        index.afterSingletonsInstantiated();
+
+        assertEquals(4, index.size());
+        assertEquals(List.of("Пила", "Пилка"), index.suggest("пи", 10));
+    }
+
+    @Test
+    void itemControllerReturnsFreeIntervalsBetweenBookings() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        ItemDto freeItem = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        ItemDto hiddenDto = getItemDto(itemCount);
+        hiddenDto.setIsAvailable(false);
+        ItemDto hidden = itemController.create(hiddenDto, ownerDto.getId());
+
+        LocalDateTime from = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime to = from.plusDays(10);
+        BookingDto first = createBooking(itemDto.getId(), bookerDto.getId(), from.plusDays(1), from.plusDays(3));
+        createBooking(itemDto.getId(), bookerDto.getId(), from.plusDays(3), from.plusDays(4));
+        assertEquals(List.of(interval(from, from.plusDays(1)), interval(from.plusDays(4), to)),
+                itemController.getAvailability(itemDto.getId(), ownerDto.getId(), from, to).getFree(),
+                "Смежные брони должны сливаться в один занятый интервал");
+
+        // Новая бронь и отказ по брони сбрасывают запись кэша вещи
+        createBooking(itemDto.getId(), bookerDto.getId(), from.plusDays(6), from.plusDays(7));
+        assertEquals(List.of(interval(from, from.plusDays(1)), interval(from.plusDays(4), from.plusDays(6)),
+                        interval(from.plusDays(7), to)),
+                itemController.getAvailability(itemDto.getId(), ownerDto.getId(), from, to).getFree());
+        bookingController.updateStatus(first.getId(), ownerDto.getId(), false);
+        assertEquals(interval(from, from.plusDays(3)),
+                itemController.getAvailability(itemDto.getId(), ownerDto.getId(), from, to).getFree().getFirst());
+
+        List<ItemAvailabilityDto> page = itemController.getAvailabilities(
+                List.of(freeItem.getId(), hidden.getId(), 9999L, itemDto.getId()), ownerDto.getId(), from, to);
+        assertEquals(List.of(freeItem.getId(), hidden.getId(), itemDto.getId()),
+                page.stream().map(ItemAvailabilityDto::getItemId).toList());
+        assertEquals(List.of(interval(from, to)), page.get(0).getFree());
+        assertEquals(List.of(), page.get(1).getFree());
+
+        assertThrows(NotFoundException.class, () -> itemController.getAvailability(9999L, ownerDto.getId(), from, to));
+        assertThrows(ValidationException.class,
+                () -> itemController.getAvailability(itemDto.getId(), ownerDto.getId(), to, from));
+        assertThrows(ValidationException.class,
+                () -> itemController.getAvailability(itemDto.getId(), ownerDto.getId(), from, from.plusYears(2)));
+    }
+
     @Test
     void itemControllerReturnsEmptyListForEmptyQuery() {
         UserDto userDto = getUserDto(userCount);
         userDto = userController.create(userDto);
-        assertEquals(0, itemController.search("", userDto.getId()).size(), "Неверное количество найденных вещей");
+        assertEquals(0, itemController.search("", userDto.getId(), 0, null).size(), "Неверное количество найденных вещей");
+    }
+
+    @Test
+    void itemSearchIsCachedUntilItemChanges() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = getItemDto(itemCount);
+        itemDto.setName("Дрель");
+        itemDto = itemController.create(itemDto, userDto.getId());
+        assertEquals(1, itemController.search("дрель", userDto.getId(), 0, null).size());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(1, itemController.search("  ДРЕЛЬ ", userDto.getId(), 0, null).size());
+        assertEquals(0, statistics.getPrepareStatementCount(), "Повторный поиск должен отдаваться из кэша");
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", ItemSearchCache.NAME).tag("result", "hit")
+                .functionCounter().count());
+
+        itemController.update(itemDto.getId(), ItemDto.builder().isAvailable(false).build(), userDto.getId());
+        assertEquals(0, itemController.search("дрель", userDto.getId(), 0, null).size(),
+                "После изменения вещи старые результаты не должны отдаваться");
+
+        UserDto otherDto = userController.create(getUserDto(userCount));
+        ItemDto otherItem = getItemDto(itemCount);
+        otherItem.setName("Дрель");
+        itemController.create(otherItem, otherDto.getId());
+        assertEquals(1, itemController.search("дрель", userDto.getId(), 0, null).size());
+        userController.delete(otherDto.getId());
+        assertEquals(0, itemController.search("дрель", userDto.getId(), 0, null).size(),
+                "Вещи удалённого пользователя не должны отдаваться из кэша");
+    }
+
+    @Test
+    void itemControllerEnrichesOwnerItemsWithBookingsAndComments() {
+        UserDto ownerDto = userController.create(getUserDto(userCount));
+        UserDto bookerDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), ownerDto.getId());
+        itemController.create(getItemDto(itemCount), ownerDto.getId());
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto past = createBooking(itemDto.getId(), bookerDto.getId(), now.minusDays(3), now.minusDays(2));
+        BookingDto next = createBooking(itemDto.getId(), bookerDto.getId(), now.plusDays(1), now.plusDays(2));
+        createBooking(itemDto.getId(), bookerDto.getId(), now.plusDays(3), now.plusDays(4));
+        bookingController.updateStatus(past.getId(), ownerDto.getId(), true);
+        bookingController.updateStatus(next.getId(), ownerDto.getId(), true);
+        itemController.createComment(itemDto.getId(), CommentDto.builder().text("Отлично").build(), bookerDto.getId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemDto> items = itemController.findAllOwned(ownerDto.getId());
+        assertTrue(statistics.getPrepareStatementCount() <= 5, "Количество запросов не должно зависеть от числа вещей");
+
+        ItemDto booked = items.stream().filter(item -> item.getId().equals(itemDto.getId())).findFirst().orElseThrow();
+        assertEquals(past.getId(), booked.getLastBooking().getId());
+        assertEquals(next.getId(), booked.getNextBooking().getId());
+        assertEquals(1, booked.getComments().size());
+    }
+
+    @Test
+    void itemControllerAnswersNotModifiedUntilItemChanges() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        ItemDto itemDto = itemController.create(getItemDto(itemCount), userDto.getId());
+
+        ServletWebRequest firstRequest = getWebRequest(null);
+        assertNotNull(itemController.findById(itemDto.getId(), userDto.getId(), firstRequest));
+        String eTag = firstRequest.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        ServletWebRequest pollRequest = getWebRequest(eTag);
+        assertNull(itemController.findById(itemDto.getId(), userDto.getId(), pollRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), pollRequest.getResponse().getStatus());
+        assertEquals(1, statistics.getPrepareStatementCount(), "Версия вещи берётся из кэша, для 304 читаются только отзывы");
+        // Тела первого ответа и опрос с 304 - оба попадания видны в метрике, по которой строится панель дашборда
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", CacheConfig.ITEMS).tag("result", "hit")
+                .functionCounter().count());
+        assertNotNull(cacheManager.getCache(CacheConfig.ITEMS).get(itemDto.getId()));
+
+        itemController.update(itemDto.getId(), ItemDto.builder().name("Новое имя").build(), userDto.getId());
+        assertNull(cacheManager.getCache(CacheConfig.ITEMS).get(itemDto.getId()));
+        ServletWebRequest changedRequest = getWebRequest(eTag);
+        assertEquals("Новое имя", itemController.findById(itemDto.getId(), userDto.getId(), changedRequest).getName());
+        assertNotEquals(eTag, changedRequest.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void itemSearchIsRateLimitedPerUser() throws Exception {
+        // В тестовом профиле ведро группы search - 20 запросов и почти без пополнения.
+        // Разные записи одного id расходуют одно ведро
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", i % 2 == 0 ? "1" : "01"))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", " 1"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        mockMvc.perform(get("/items/search").param("text", "дрель").header("X-Sharer-User-Id", 2))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", 1))
+                .andExpect(status().isNotFound());
+    }
+
+    private static ServletWebRequest getWebRequest(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private BookingDto createBooking(Long itemId, Long bookerId, LocalDateTime start, LocalDateTime end) {
+        return bookingController.create(BookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build(), bookerId);
+    }
+
+    private static TimeIntervalDto interval(LocalDateTime start, LocalDateTime end) {
+        return TimeIntervalDto.builder().start(start).end(end).build();
     }
 
     private UserDto getUserDto(int count) {
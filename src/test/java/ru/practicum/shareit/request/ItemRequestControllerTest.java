@@ -0,0 +1,185 @@
+package ru.practicum.shareit.request;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.ValidationException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.extention.NotFoundException;
+import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.request.controller.ItemRequestController;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.controller.UserController;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(classes = ShareItApp.class)
+@AutoConfigureTestDatabase
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class ItemRequestControllerTest {
+    static int userCount = 0;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ItemController itemController;
+
+    @Autowired
+    private ItemRequestController itemRequestController;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void itemRequestControllerCreatesRequest() {
+        UserDto requester = userController.create(getUserDto(userCount));
+
+        ItemRequestDto request = itemRequestController.create(getRequestDto("Нужна дрель"), requester.getId());
+
+        assertNotNull(request.getId());
+        assertNotNull(request.getCreated());
+        assertEquals("Нужна дрель", request.getDescription());
+        assertTrue(request.getItems().isEmpty());
+    }
+
+    @Test
+    void itemRequestControllerReturnsOwnRequestsWithOffers() {
+        UserDto requester = userController.create(getUserDto(userCount));
+        UserDto owner = userController.create(getUserDto(userCount));
+
+        List<ItemRequestDto> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ItemRequestDto request = itemRequestController.create(getRequestDto("Запрос" + i), requester.getId());
+            created.add(request);
+            itemController.create(getItemDto("Вещь" + i, request.getId()), owner.getId());
+        }
+        ItemDto offered = itemController.create(getItemDto("Ещё вещь", created.getFirst().getId()), owner.getId());
+        assertEquals(created.getFirst().getId(), offered.getRequestId());
+        // Списки собираются из проекции ItemView - id запроса должен быть и в них
+        assertEquals(created.getFirst().getId(), itemController.findAllOwned(owner.getId()).getLast().getRequestId());
+        assertEquals(created.getFirst().getId(),
+                itemController.search("Ещё вещь", owner.getId(), 0, null).getFirst().getRequestId());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemRequestDto> requests = itemRequestController.findAllOwn(requester.getId());
+        assertTrue(statistics.getPrepareStatementCount() <= 2, "Предложенные вещи должны грузиться одним запросом");
+
+        assertEquals(5, requests.size());
+        assertEquals(created.getLast().getId(), requests.getFirst().getId(), "Сначала новые запросы");
+        assertEquals(2, requests.getLast().getItems().size());
+        assertEquals(owner.getId(), requests.getLast().getItems().getFirst().getOwnerId());
+    }
+
+    @Test
+    void itemRequestControllerPagesOtherUsersRequestsByKeyset() {
+        UserDto author = userController.create(getUserDto(userCount));
+        UserDto reader = userController.create(getUserDto(userCount));
+        itemRequestController.create(getRequestDto("Свой запрос"), reader.getId());
+
+        // Половина запросов с одинаковым временем, чтобы порядок решал id
+        User requester = userRepository.findById(author.getId()).orElseThrow();
+        LocalDateTime created = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("Запрос" + i)
+                    .requester(requester)
+                    .created(i < 4 ? created : created.plusMinutes(i))
+                    .build());
+            ids.add(request.getId());
+        }
+        List<Long> newestFirst = ids.reversed();
+
+        List<Long> pages = new ArrayList<>();
+        Long after = null;
+        List<ItemRequestDto> page;
+        do {
+            page = itemRequestController.findAllOthers(reader.getId(), after, 3);
+            page.forEach(request -> pages.add(request.getId()));
+            after = page.isEmpty() ? null : page.getLast().getId();
+        } while (page.size() == 3);
+
+        assertEquals(newestFirst, pages);
+    }
+
+    @Test
+    void deletingRequesterKeepsItemsOfferedByOthers() {
+        UserDto requester = userController.create(getUserDto(userCount));
+        UserDto owner = userController.create(getUserDto(userCount));
+        ItemRequestDto request = itemRequestController.create(getRequestDto("Нужна дрель"), requester.getId());
+        ItemDto offered = itemController.create(getItemDto("Дрель", request.getId()), owner.getId());
+
+        userController.delete(requester.getId());
+
+        ItemDto kept = itemController.findById(offered.getId(), owner.getId(), new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+        assertEquals("Дрель", kept.getName());
+        assertNull(kept.getRequestId(), "Удаление запроса отвязывает предложенную вещь, а не удаляет её");
+        assertEquals(List.of("Дрель"), itemController.suggest("дре", owner.getId(), 10),
+                "Название предложенной вещи остаётся в подсказках");
+    }
+
+    @Test
+    void itemRequestControllerValidatesRequests() {
+        UserDto user = userController.create(getUserDto(userCount));
+
+        assertThrows(NotFoundException.class, () -> itemRequestController.findById(9999L, user.getId()));
+        assertThrows(NotFoundException.class, () -> itemRequestController.findAllOthers(user.getId(), 9999L, 10));
+        assertThrows(ValidationException.class, () -> itemRequestController.findAllOthers(user.getId(), null, 0));
+        assertThrows(NotFoundException.class,
+                () -> itemController.create(getItemDto("Вещь", 9999L), user.getId()));
+    }
+
+    private UserDto getUserDto(int count) {
+        userCount++;
+        return UserDto.builder()
+                .name("User" + count)
+                .email("user" + count + "@mail.ru")
+                .build();
+    }
+
+    private ItemRequestDto getRequestDto(String description) {
+        return ItemRequestDto.builder()
+                .description(description)
+                .build();
+    }
+
+    private ItemDto getItemDto(String name, Long requestId) {
+        return ItemDto.builder()
+                .name(name)
+                .description("Описание " + name)
+                .isAvailable(true)
+                .requestId(requestId)
+                .build();
+    }
+}
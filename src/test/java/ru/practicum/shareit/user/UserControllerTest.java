@@ -5,12 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.config.CacheConfig;
+import ru.practicum.shareit.extention.ConditionsNotMetException;
 import ru.practicum.shareit.extention.DuplicatedDataException;
+import ru.practicum.shareit.extention.ExceptionMessages;
 import ru.practicum.shareit.extention.NotFoundException;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.model.UserDto;
+import ru.practicum.shareit.user.service.UserService;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -26,6 +31,12 @@ class UserControllerTest {
     @Autowired
     private UserController userController;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     @Test
     void userControllerCreatesCorrectUser() {
         UserDto userDto = getUserDto(userCount);
@@ -94,6 +105,24 @@ class UserControllerTest {
     }
 
 
+    @Test
+    void userServiceEvictsCachedUserOnUpdateAndDelete() {
+        UserDto userDto = userController.create(getUserDto(userCount));
+        Long userId = userDto.getId();
+        assertEquals(userDto.getName(), userService.getUser(userId).name());
+        assertNotNull(cacheManager.getCache(CacheConfig.USERS).get(userId));
+
+        userDto.setName("User9999");
+        userController.update(userId, userDto);
+        assertEquals("User9999", userService.getUser(userId).name());
+
+        userController.delete(userId);
+        assertThrows(NotFoundException.class, () -> userService.getUser(userId));
+
+        ConditionsNotMetException thrown = assertThrows(ConditionsNotMetException.class, () -> userService.getUser(null));
+        assertEquals(ExceptionMessages.NOT_FOUND_USER, thrown.getMessage());
+    }
+
     @Test
     void userControllerDoesNotDeleteUserWithWrongId() {
         assertThrows(NotFoundException.class,